@@ -0,0 +1,130 @@
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+
+/**
+ * @Description 把分析过程以定长的二进制记录写出，比文字小得多，需要时再用replay转换为文字
+ * 每条记录是一个字节的类型加上三个int：步数和两个参数，int按大端序，可以用DataInputStream读入
+ * @Author Jianlong
+ * @Date 2026-10-17 下午 22:10
+ */
+public class BinaryParseTracer implements ParseTracer {
+
+    // 记录的类型
+    private static final byte STEP = 0;
+    private static final byte PRODUCTION = 1;
+    private static final byte MATCH = 2;
+    private static final byte ACCEPT = 3;
+    // 出错时有三个参数，多写一个int
+    private static final byte ERROR = 4;
+
+    // 一条记录的最大长度
+    private static final int RECORD_SIZE = 17;
+
+    private final OutputStream out;
+    // 自己管理缓冲区，不经过逐字节加锁的输出流
+    private final byte[] buffer = new byte[1 << 16];
+    // 缓冲区中已写入的字节数
+    private int size;
+
+    public BinaryParseTracer(OutputStream out){
+        this.out = out;
+    }
+
+    private void write(byte kind, int step, int a, int b){
+        if (size + RECORD_SIZE > buffer.length){
+            flush();
+        }
+        buffer[size++] = kind;
+        writeInt(step);
+        writeInt(a);
+        writeInt(b);
+    }
+
+    private void writeInt(int value){
+        buffer[size] = (byte) (value >>> 24);
+        buffer[size + 1] = (byte) (value >>> 16);
+        buffer[size + 2] = (byte) (value >>> 8);
+        buffer[size + 3] = (byte) value;
+        size += 4;
+    }
+
+    @Override
+    public void step(int step, int top, int lookahead) {
+        write(STEP, step, top, lookahead);
+    }
+
+    @Override
+    public void production(int step, int nonterminal, int production) {
+        write(PRODUCTION, step, nonterminal, production);
+    }
+
+    @Override
+    public void match(int step, int terminal, int position) {
+        write(MATCH, step, terminal, position);
+    }
+
+    @Override
+    public void accept(int step) {
+        write(ACCEPT, step, 0, 0);
+        flush();
+    }
+
+    @Override
+    public void error(int step, int top, int lookahead, int position) {
+        write(ERROR, step, top, lookahead);
+        writeInt(position);
+        flush();
+    }
+
+    @Override
+    public void flush(){
+        try{
+            out.write(buffer, 0, size);
+            size = 0;
+            out.flush();
+        } catch (IOException e){
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * 读入二进制的跟踪记录，依次交给另一个跟踪器，例如TextParseTracer
+     */
+    public static void replay(InputStream in, ParseTracer target) throws IOException {
+        DataInputStream data = new DataInputStream(in);
+        while (true){
+            int kind;
+            try{
+                kind = data.readByte();
+            } catch (EOFException e){
+                return;
+            }
+            int step = data.readInt();
+            int a = data.readInt();
+            int b = data.readInt();
+            switch (kind){
+                case STEP:
+                    target.step(step, a, b);
+                    break;
+                case PRODUCTION:
+                    target.production(step, a, b);
+                    break;
+                case MATCH:
+                    target.match(step, a, b);
+                    break;
+                case ACCEPT:
+                    target.accept(step);
+                    break;
+                case ERROR:
+                    target.error(step, a, b, data.readInt());
+                    break;
+                default:
+                    throw new IOException("跟踪记录的格式不正确!");
+            }
+        }
+    }
+}
@@ -0,0 +1,227 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * @Description 编码后的文法，符号用连续的整数编号，每个候选式是一个int数组
+ * 终结符编号为[0, terminalCount)，非终结符编号为[terminalCount, symbolCount)，空串NULL不编号，空候选式是长度为0的数组
+ * @Author Jianlong
+ * @Date 2026-10-17 下午 17:40
+ */
+public class CompiledGrammar {
+
+    // 界符，作为输入串的结束标志，总是一个终结符
+    public static final String END = "#";
+    // 空串
+    public static final String NULL = "NULL";
+
+    // 符号名，下标为符号编号
+    private final String[] names;
+    // 符号名到编号的映射
+    private final Map<String, Integer> ids;
+    private final int terminalCount;
+    private final int nonterminalCount;
+    // 界符的编号
+    private final int end;
+    // 开始符号的编号
+    private final int start;
+
+    // 产生式的左部
+    private final int[] lhs;
+    // 产生式的右部
+    private final int[][] rhs;
+    // 产生式右部的原始写法，用于显示
+    private final String[] alternatives;
+    // 每个非终结符的产生式编号，下标为 非终结符编号-terminalCount
+    private final int[][] productionsOf;
+    // 每个非终结符出现在哪些产生式的右部，一条产生式只记一次
+    private final int[][] occurrencesOf;
+
+    CompiledGrammar(Grammar grammar, String[] Vn, String[] Vt){
+        // 终结符和非终结符都按输入的顺序编号
+        Set<String> terminals = new LinkedHashSet<>();
+        for (String value : Vt){
+            if (!value.equals(NULL)){
+                terminals.add(value);
+            }
+        }
+        terminals.add(END);
+        Set<String> nonterminals = new LinkedHashSet<>(Arrays.asList(Vn));
+
+        this.terminalCount = terminals.size();
+        this.nonterminalCount = nonterminals.size();
+        this.names = new String[terminalCount + nonterminalCount];
+        this.ids = new HashMap<>();
+        int id = 0;
+        for (String value : terminals){
+            names[id] = value;
+            ids.put(value, id++);
+        }
+        for (String value : nonterminals){
+            if (ids.containsKey(value)){
+                throw new IllegalArgumentException("符号既是终结符又是非终结符: " + value);
+            }
+            names[id] = value;
+            ids.put(value, id++);
+        }
+        this.end = ids.get(END);
+
+        if (!nonterminals.contains(grammar.getStart())){
+            throw new IllegalArgumentException("开始符号不是非终结符: " + grammar.getStart());
+        }
+        this.start = ids.get(grammar.getStart());
+
+        // 按非终结符的顺序编码产生式
+        List<Integer> lhsList = new ArrayList<>();
+        List<int[]> rhsList = new ArrayList<>();
+        List<String> alternativeList = new ArrayList<>();
+        this.productionsOf = new int[nonterminalCount][];
+
+        for (String left : nonterminals){
+            String[] rightItems = grammar.getP().get(left);
+            if (rightItems == null){
+                productionsOf[ids.get(left) - terminalCount] = new int[0];
+                continue;
+            }
+            int[] own = new int[rightItems.length];
+            for (int i=0; i<rightItems.length; i++){
+                own[i] = lhsList.size();
+                lhsList.add(ids.get(left));
+                rhsList.add(encode(grammar.disassemble(rightItems[i])));
+                alternativeList.add(rightItems[i]);
+            }
+            productionsOf[ids.get(left) - terminalCount] = own;
+        }
+
+        for (String left : grammar.getP().keySet()){
+            if (!nonterminals.contains(left)){
+                throw new IllegalArgumentException("产生式的左部不是非终结符: " + left);
+            }
+        }
+
+        this.lhs = new int[lhsList.size()];
+        for (int i=0; i<lhs.length; i++){
+            lhs[i] = lhsList.get(i);
+        }
+        this.rhs = rhsList.toArray(new int[0][]);
+        this.alternatives = alternativeList.toArray(new String[0]);
+
+        // 建立非终结符出现位置的索引，last记录上一次记到的产生式，避免重复
+        int[] counts = new int[nonterminalCount];
+        int[] last = new int[nonterminalCount];
+        Arrays.fill(last, -1);
+        for (int p=0; p<rhs.length; p++){
+            for (int symbol : rhs[p]){
+                if (isNonterminal(symbol) && last[symbol - terminalCount] != p){
+                    last[symbol - terminalCount] = p;
+                    counts[symbol - terminalCount]++;
+                }
+            }
+        }
+        this.occurrencesOf = new int[nonterminalCount][];
+        for (int A=0; A<nonterminalCount; A++){
+            occurrencesOf[A] = new int[counts[A]];
+            counts[A] = 0;
+        }
+        Arrays.fill(last, -1);
+        for (int p=0; p<rhs.length; p++){
+            for (int symbol : rhs[p]){
+                int A = symbol - terminalCount;
+                if (isNonterminal(symbol) && last[A] != p){
+                    last[A] = p;
+                    occurrencesOf[A][counts[A]++] = p;
+                }
+            }
+        }
+    }
+
+    // 把符号列表编码为编号数组，NULL表示空串，不占位置
+    private int[] encode(List<String> characters){
+        int[] result = new int[characters.size()];
+        int count = 0;
+        for (String character : characters){
+            if (character.equals(NULL)){
+                continue;
+            }
+            Integer id = ids.get(character);
+            if (id == null){
+                throw new IllegalArgumentException("文法中出现了未定义的符号: " + character);
+            }
+            result[count++] = id;
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    public int symbolCount(){
+        return names.length;
+    }
+
+    public int terminalCount(){
+        return terminalCount;
+    }
+
+    public int nonterminalCount(){
+        return nonterminalCount;
+    }
+
+    public int productionCount(){
+        return lhs.length;
+    }
+
+    public boolean isTerminal(int symbol){
+        return symbol < terminalCount;
+    }
+
+    public boolean isNonterminal(int symbol){
+        return symbol >= terminalCount;
+    }
+
+    // 符号的编号，不存在时返回-1
+    public int id(String name){
+        return ids.getOrDefault(name, -1);
+    }
+
+    public String name(int symbol){
+        return names[symbol];
+    }
+
+    public int getEnd() {
+        return end;
+    }
+
+    public int getStart() {
+        return start;
+    }
+
+    public int lhs(int production){
+        return lhs[production];
+    }
+
+    // 产生式的右部，调用者不能修改返回的数组
+    public int[] rhs(int production){
+        return rhs[production];
+    }
+
+    public String alternative(int production){
+        return alternatives[production];
+    }
+
+    // 产生式的写法，如 A -> aB，与LL1Analysis中SELECT集的键相同
+    public String productionName(int production){
+        return names[lhs[production]] + " -> " + alternatives[production];
+    }
+
+    // 非终结符的全部产生式编号，调用者不能修改返回的数组
+    public int[] productionsOf(int nonterminal){
+        return productionsOf[nonterminal - terminalCount];
+    }
+
+    // 右部含有该非终结符的产生式编号，调用者不能修改返回的数组
+    public int[] occurrencesOf(int nonterminal){
+        return occurrencesOf[nonterminal - terminalCount];
+    }
+}
@@ -0,0 +1,341 @@
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * @Description 编译好的LL1语法分析器，文法分析和分析表只在构造时计算一次
+ * 对象创建之后不再改变，分析时的栈是每次调用自己的，所以可以被多个线程同时使用
+ * @Author Jianlong
+ * @Date 2026-10-17 下午 22:40
+ */
+public class CompiledLL1Parser {
+
+    // 分析一批输入时，每个并行任务至少分析的输入个数
+    private static final int MIN_TASK_INPUTS = 16;
+
+    private final ParseTable table;
+    private final CompiledGrammar grammar;
+    // 种别码到终结符编号的映射
+    private final TerminalMap terminals;
+
+    // 一次分析使用的栈和输入，同一个线程连续分析时可以复用
+    static final class Workspace{
+        int[] stack = new int[64];
+        int[] input = new int[256];
+    }
+
+    // 一个输入的分析结果
+    public static final class Result{
+        // 使用产生式的次数，出错时为-1
+        public final int productions;
+        // 出错信息，分析成功时为null
+        public final String error;
+
+        Result(int productions, String error) {
+            this.productions = productions;
+            this.error = error;
+        }
+
+        public boolean isAccepted(){
+            return error == null;
+        }
+
+        @Override
+        public String toString() {
+            return isAccepted() ? "Result{productions=" + productions + '}' : "Result{error=" + error + '}';
+        }
+    }
+
+    /**
+     * 分析文法并构造分析表
+     * @param grammar LL1文法，不是LL1文法时抛出异常
+     * @param terminals 种别码到终结符的映射，输入结束对应界符#，不需要放在映射中
+     */
+    public CompiledLL1Parser(Grammar grammar, Map<Integer, String> terminals){
+        this(new LL1Table(new GrammarSets(grammar.getCompiled())), terminals);
+    }
+
+    public CompiledLL1Parser(ParseTable table, Map<Integer, String> terminals){
+        this.table = table;
+        this.grammar = table.getGrammar();
+        this.terminals = new TerminalMap(grammar, terminals);
+    }
+
+    public ParseTable getTable() {
+        return table;
+    }
+
+    public CompiledGrammar getGrammar() {
+        return grammar;
+    }
+
+    // 种别码对应的终结符编号
+    public int terminal(int syn){
+        return terminals.terminal(syn);
+    }
+
+    /**
+     * 分析词法分析的结果，遇到种别码为-1的单词（输入结束）时结束
+     * 种别码为-1的单词是非法字符时（见TokenBuffer.isEnd）抛出异常
+     * @return 使用产生式的次数
+     */
+    public int parse(TokenBuffer tokens){
+        return parse(tokens, ParseTracer.NONE, new Workspace());
+    }
+
+    public int parse(TokenBuffer tokens, ParseTracer tracer){
+        return parse(tokens, tracer, new Workspace());
+    }
+
+    /**
+     * 分析终结符编号序列，遇到界符时结束，没有界符时在末尾补一个
+     * @return 使用产生式的次数
+     */
+    public int parse(int[] input, int length){
+        return parse(input, length, ParseTracer.NONE, new Workspace());
+    }
+
+    /**
+     * 分析并构造语法树，结点存放在SyntaxTree的数组中
+     * 出错时抛出异常，不返回不完整的树
+     */
+    public SyntaxTree parseTree(TokenBuffer tokens){
+        // 结点数一般是单词数的两到三倍，预先分配以减少扩容
+        TreeBuilder builder = new TreeBuilder(new SyntaxTree(grammar, tokens.size() * 3));
+        parse(tokens, builder, new Workspace());
+        return builder.getTree();
+    }
+
+    int parse(TokenBuffer tokens, ParseTracer tracer, Workspace workspace){
+        workspace.input = terminals.encode(tokens, workspace.input);
+        return parse(workspace.input, tokens.size(), tracer, workspace);
+    }
+
+    // 分析的主循环，栈放在workspace中，扩容后留给下一次使用
+    int parse(int[] input, int length, ParseTracer tracer, Workspace workspace){
+        boolean tracing = tracer != ParseTracer.NONE;
+        int end = grammar.getEnd();
+        int T = grammar.terminalCount();
+        int[] stack = workspace.stack;
+        int top = 0;
+        // 首先放入界符和开始符号
+        stack[top++] = end;
+        stack[top++] = grammar.getStart();
+
+        int i = 0;
+        int c = length > 0 ? input[0] : end;
+        int count = 0;
+        int step = 0;
+        if (tracing){
+            tracer.begin(Arrays.copyOf(input, length));
+        }
+
+        try{
+            while (true){
+                int x = stack[top - 1];
+                if (tracing){
+                    tracer.step(step, x, c);
+                }
+                if (x < T){
+                    // 栈顶是终结符，与当前输入符号匹配
+                    if (x != c){
+                        throw error(tracer, step, x, c, i);
+                    }
+                    if (x == end){
+                        if (tracing){
+                            tracer.accept(step);
+                        }
+                        workspace.stack = stack;
+                        return count;
+                    }
+                    if (tracing){
+                        tracer.match(step, x, i);
+                    }
+                    top--;
+                    i++;
+                    c = i < length ? input[i] : end;
+                } else{
+                    // 栈顶是非终结符，查表替换为产生式的右部
+                    int production = table.production(x, c);
+                    if (production == LL1Table.ERROR){
+                        throw error(tracer, step, x, c, i);
+                    }
+                    if (tracing){
+                        tracer.production(step, x, production);
+                    }
+                    top--;
+                    int[] right = table.rhs(production);
+                    if (top + right.length > stack.length){
+                        stack = Arrays.copyOf(stack, Math.max(stack.length * 2, top + right.length));
+                    }
+                    for (int j=right.length-1; j>=0; j--){
+                        stack[top++] = right[j];
+                    }
+                    count++;
+                }
+                step++;
+            }
+        } finally{
+            // 不论分析成功、出错还是抛出其他异常，缓冲的分析过程都要写出
+            if (tracing){
+                tracer.flush();
+            }
+        }
+    }
+
+    /**
+     * 流式分析：需要下一个单词时才从tokens中取，单词取完时视为输入结束，遇到种别码为-1的单词（非法字符）时抛出异常
+     * 不保存已经分析过的单词，内存占用只与分析栈的深度有关，词法分析和语法分析交替进行
+     * @param tokens 单词序列，比如StreamLexicalAnalysis.tokens()
+     * @param tracer 在分析的同时收到每一步的事件
+     * @return 使用产生式的次数
+     */
+    public int parse(Iterator<LexicalAnalysis.Token> tokens, ParseTracer tracer){
+        boolean tracing = tracer != ParseTracer.NONE;
+        int end = grammar.getEnd();
+        int T = grammar.terminalCount();
+        int[] stack = new int[64];
+        int top = 0;
+        stack[top++] = end;
+        stack[top++] = grammar.getStart();
+
+        int i = 0;
+        int c = nextTerminal(tokens);
+        int count = 0;
+        int step = 0;
+
+        try{
+            while (true){
+                int x = stack[top - 1];
+                if (tracing){
+                    tracer.step(step, x, c);
+                }
+                if (x < T){
+                    if (x != c){
+                        throw error(tracer, step, x, c, i);
+                    }
+                    if (x == end){
+                        if (tracing){
+                            tracer.accept(step);
+                        }
+                        return count;
+                    }
+                    if (tracing){
+                        tracer.match(step, x, i);
+                    }
+                    top--;
+                    i++;
+                    // 匹配之后才读入下一个单词
+                    c = nextTerminal(tokens);
+                } else{
+                    int production = table.production(x, c);
+                    if (production == LL1Table.ERROR){
+                        throw error(tracer, step, x, c, i);
+                    }
+                    if (tracing){
+                        tracer.production(step, x, production);
+                    }
+                    top--;
+                    int[] right = table.rhs(production);
+                    if (top + right.length > stack.length){
+                        stack = Arrays.copyOf(stack, Math.max(stack.length * 2, top + right.length));
+                    }
+                    for (int j=right.length-1; j>=0; j--){
+                        stack[top++] = right[j];
+                    }
+                    count++;
+                }
+                step++;
+            }
+        } finally{
+            // 词法分析中途抛出异常（非法字符、注释不匹配）时没有调用tracer.error，缓冲的分析过程也要写出
+            if (tracing){
+                tracer.flush();
+            }
+        }
+    }
+
+    // 取下一个单词的终结符编号，没有单词时返回界符
+    private int nextTerminal(Iterator<LexicalAnalysis.Token> tokens){
+        return tokens.hasNext() ? terminals.terminal(tokens.next()) : grammar.getEnd();
+    }
+
+    private IllegalArgumentException error(ParseTracer tracer, int step, int x, int c, int position){
+        tracer.error(step, x, c, position);
+        return new IllegalArgumentException("ERROR:分析出错! 第" + position + "个单词 " + grammar.name(c)
+                + " 处栈顶符号为 " + grammar.name(x));
+    }
+
+    // 并行地分析一批输入
+    public List<Result> parseAll(List<TokenBuffer> inputs){
+        return parseAll(inputs, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * 并行地分析一批输入，一个输入出错不影响其他输入
+     * @return 每个输入的分析结果，与输入的顺序相同
+     */
+    public List<Result> parseAll(List<TokenBuffer> inputs, ForkJoinPool pool){
+        Result[] results = new Result[inputs.size()];
+        int n = Math.max(1, Math.min(pool.getParallelism() * 4, inputs.size() / MIN_TASK_INPUTS));
+
+        // 每个任务分析连续的一段输入，并复用同一个workspace
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (int k=0; k<n; k++){
+            int from = (int) ((long) inputs.size() * k / n);
+            int to = (int) ((long) inputs.size() * (k + 1) / n);
+            tasks.add(() -> {
+                Workspace workspace = new Workspace();
+                for (int i=from; i<to; i++){
+                    try{
+                        results[i] = new Result(parse(inputs.get(i), ParseTracer.NONE, workspace), null);
+                    } catch (IllegalArgumentException e){
+                        results[i] = new Result(-1, e.getMessage());
+                    }
+                }
+                return null;
+            });
+        }
+
+        try{
+            for (Future<Void> future : pool.invokeAll(tasks)){
+                future.get();
+            }
+        } catch (InterruptedException e){
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("语法分析被中断!", e);
+        } catch (ExecutionException e){
+            throw new IllegalStateException("语法分析出错!", e.getCause());
+        }
+        return Arrays.asList(results);
+    }
+
+    public static void main(String[] args) {
+        CompiledLL1Parser parser = new CompiledLL1Parser(ParserBenchmark.expressionGrammar(), ParserBenchmark.expressionTerminals());
+
+        String[] sources = {"a + b * (c - 1)", "x * (y + 2", "(1 + 2) * 3 / n", "a + * b"};
+        List<TokenBuffer> inputs = new ArrayList<>();
+        for (String source : sources){
+            TokenBuffer tokens = new TokenBuffer();
+            new DFAScanner().tokenize(source.toCharArray(), tokens);
+            inputs.add(tokens);
+        }
+
+        List<Result> results = parser.parseAll(inputs);
+        for (int i=0; i<sources.length; i++){
+            System.out.println(sources[i] + " : " + results.get(i));
+        }
+
+        // 流式分析，边读入单词边输出分析过程
+        StreamLexicalAnalysis lexer = new StreamLexicalAnalysis(new StringReader("(a + 1) * b"));
+        TextParseTracer tracer = new TextParseTracer(parser.getGrammar(), System.out);
+        System.out.println("使用产生式: " + parser.parse(lexer.tokens(), tracer));
+    }
+}
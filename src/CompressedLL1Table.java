@@ -0,0 +1,261 @@
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * @Description 压缩的预测分析表（行移位法/梳状向量）
+ * 每一行只保存非空的表项，各行错开一定的位移后叠放在同一个数组next中，
+ * check记录每个位置属于哪一行，不属于本行时使用该行的默认值，查表仍然是常数时间：
+ * i = base[A] + a;  check[i] == A ? next[i] : defaults[A]
+ * @Author Jianlong
+ * @Date 2026-10-17 下午 23:30
+ */
+public class CompressedLL1Table implements ParseTable {
+
+    private final CompiledGrammar grammar;
+    // 终结符个数
+    private final int T;
+    // 每一行在next中的起始位置，下标为 非终结符编号-T
+    private final int[] base;
+    // 不在next中的表项的值，下标为 非终结符编号-T
+    private final int[] defaults;
+    // 叠放后的表项
+    private final int[] next;
+    // next中每个位置属于的非终结符，空位置为-1
+    private final int[] check;
+
+    public CompressedLL1Table(ParseTable table){
+        this(table, false);
+    }
+
+    /**
+     * 压缩一个分析表
+     * @param table 原来的分析表，一般是LL1Table
+     * @param useDefaults 为true时每行出现最多的产生式作为默认值，不再放入next，表更小；
+     *                    这时出错的表项也返回默认产生式，错误推迟到下一次终结符匹配时才发现，但不会多读入单词
+     *                    为false时默认值是LL1Table.ERROR，出错的位置与原来的表完全相同
+     */
+    public CompressedLL1Table(ParseTable table, boolean useDefaults){
+        this.grammar = table.getGrammar();
+        this.T = grammar.terminalCount();
+        int N = grammar.nonterminalCount();
+        this.base = new int[N];
+        this.defaults = new int[N];
+
+        // 取出每一行的非空表项，等于默认值的不用保存
+        int[][] columns = new int[N][];
+        int[][] values = new int[N][];
+        int[] column = new int[T];
+        int[] value = new int[T];
+        for (int r=0; r<N; r++){
+            int A = r + T;
+            defaults[r] = useDefaults ? mostFrequent(table, A) : LL1Table.ERROR;
+            int n = 0;
+            for (int t=0; t<T; t++){
+                int p = table.production(A, t);
+                if (p != LL1Table.ERROR && p != defaults[r]){
+                    column[n] = t;
+                    value[n] = p;
+                    n++;
+                }
+            }
+            columns[r] = Arrays.copyOf(column, n);
+            values[r] = Arrays.copyOf(value, n);
+        }
+
+        // 表项多的行先放，每行放在第一个不冲突的位置
+        Integer[] order = new Integer[N];
+        for (int r=0; r<N; r++){
+            order[r] = r;
+        }
+        Arrays.sort(order, (a, b) -> columns[b].length - columns[a].length);
+
+        int[] next = new int[Math.max(T, 16)];
+        int[] check = new int[next.length];
+        Arrays.fill(check, -1);
+        // 第一个空位置之前的位移都不用再试
+        int firstFree = 0;
+        int size = 0;
+        for (int r : order){
+            int[] cols = columns[r];
+            if (cols.length == 0){
+                continue;
+            }
+            while (firstFree < check.length && check[firstFree] != -1){
+                firstFree++;
+            }
+            int b = firstFree - cols[0];
+            while (true){
+                if (b + T > check.length){
+                    int length = Math.max(check.length * 2, b + T);
+                    next = Arrays.copyOf(next, length);
+                    int old = check.length;
+                    check = Arrays.copyOf(check, length);
+                    Arrays.fill(check, old, length, -1);
+                }
+                if (b >= 0 && fits(check, cols, b)){
+                    break;
+                }
+                b++;
+            }
+            base[r] = b;
+            for (int i=0; i<cols.length; i++){
+                next[b + cols[i]] = values[r][i];
+                check[b + cols[i]] = r + T;
+            }
+            size = Math.max(size, b + T);
+        }
+
+        // 截去末尾的空位置，但保证 base+a 不越界
+        this.next = Arrays.copyOf(next, Math.max(size, T));
+        this.check = Arrays.copyOf(check, this.next.length);
+        if (check.length < this.check.length){
+            Arrays.fill(this.check, check.length, this.check.length, -1);
+        }
+    }
+
+    private static boolean fits(int[] check, int[] cols, int b){
+        for (int t : cols){
+            if (check[b + t] != -1){
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // 一行中出现次数最多的产生式，整行为空时返回ERROR
+    private int mostFrequent(ParseTable table, int A){
+        int best = LL1Table.ERROR;
+        int bestCount = 0;
+        for (int p : grammar.productionsOf(A)){
+            int count = 0;
+            for (int t=0; t<T; t++){
+                if (table.production(A, t) == p){
+                    count++;
+                }
+            }
+            if (count > bestCount){
+                best = p;
+                bestCount = count;
+            }
+        }
+        return best;
+    }
+
+    @Override
+    public int production(int nonterminal, int terminal){
+        int i = base[nonterminal - T] + terminal;
+        return check[i] == nonterminal ? next[i] : defaults[nonterminal - T];
+    }
+
+    @Override
+    public int[] rhs(int production){
+        return grammar.rhs(production);
+    }
+
+    @Override
+    public CompiledGrammar getGrammar() {
+        return grammar;
+    }
+
+    // next中保存的表项个数
+    public int entryCount(){
+        int count = 0;
+        for (int c : check){
+            if (c != -1){
+                count++;
+            }
+        }
+        return count;
+    }
+
+    // 占用的内存（字节），四个int数组加上数组头
+    public long memoryBytes(){
+        return intArrayBytes(base.length) + intArrayBytes(defaults.length)
+                + intArrayBytes(next.length) + intArrayBytes(check.length);
+    }
+
+    // 一个int数组占用的内存：16字节的数组头加上数据，按8字节对齐
+    static long intArrayBytes(int length){
+        return (16 + 4L * length + 7) & ~7L;
+    }
+
+    // 同样内容的二维int数组（LL1Table）占用的内存
+    static long denseBytes(CompiledGrammar grammar){
+        return intArrayBytes(grammar.nonterminalCount()) + (long) grammar.nonterminalCount() * intArrayBytes(grammar.terminalCount());
+    }
+
+    /**
+     * 估计SyntacticParser中HashMap<String, String>分析表占用的内存
+     * 每个表项：HashMap.Node 32字节，键 左部+终结符 的String 24字节加上byte[]，
+     * 值是产生式的字符串，同一个产生式共用；再加上桶数组
+     */
+    static long hashMapBytes(ParseTable table){
+        CompiledGrammar g = table.getGrammar();
+        int T = g.terminalCount();
+        long bytes = 0;
+        int entries = 0;
+        for (int A=T; A<g.symbolCount(); A++){
+            for (int t=0; t<T; t++){
+                if (table.production(A, t) != LL1Table.ERROR){
+                    int length = (g.name(A) + g.name(t)).getBytes(StandardCharsets.UTF_8).length;
+                    bytes += 32 + 24 + ((16 + length + 7) & ~7L);
+                    entries++;
+                }
+            }
+        }
+        int capacity = 16;
+        while (capacity * 0.75 < entries){
+            capacity *= 2;
+        }
+        return bytes + 16 + 4L * capacity;
+    }
+
+    // 输出三种分析表的内存占用
+    private static void report(String name, LL1Table dense){
+        CompressedLL1Table exact = new CompressedLL1Table(dense);
+        CompressedLL1Table withDefaults = new CompressedLL1Table(dense, true);
+        CompiledGrammar g = dense.getGrammar();
+        System.out.println(name + ": 非终结符 " + g.nonterminalCount() + ", 终结符 " + g.terminalCount()
+                + ", 非空表项 " + exact.entryCount());
+        System.out.printf("  二维数组:       %,12d 字节%n", denseBytes(g));
+        System.out.printf("  HashMap(估计):  %,12d 字节%n", hashMapBytes(dense));
+        System.out.printf("  压缩:           %,12d 字节, next长度 %d%n", exact.memoryBytes(), exact.next.length);
+        System.out.printf("  压缩+默认产生式: %,12d 字节, next长度 %d%n", withDefaults.memoryBytes(), withDefaults.next.length);
+    }
+
+    public static void main(String[] args) {
+        report("表达式文法", new LL1Table(new GrammarSets(ParserBenchmark.expressionGrammar().getCompiled())));
+
+        // 一个稀疏的大文法：每个非终结符有三个产生式，分别以不同的终结符开头
+        int N = 2000;
+        int T = 500;
+        String[] Vn = new String[N];
+        for (int i=0; i<N; i++){
+            Vn[i] = String.valueOf((char) (0x4E00 + i));
+        }
+        String[] Vt = new String[T];
+        for (int i=0; i<T; i++){
+            Vt[i] = String.valueOf((char) (0x100 + i));
+        }
+        String[] P = new String[N];
+        for (int i=0; i<N; i++){
+            P[i] = Vn[i] + "->" + Vt[(3 * i) % T] + Vn[(i + 1) % N]
+                    + "|" + Vt[(3 * i + 1) % T]
+                    + "|" + Vt[(3 * i + 2) % T] + Vn[(i + 7) % N];
+        }
+        LL1Table dense = new LL1Table(new GrammarSets(new Grammar(Vn, Vt, P, Vn[0]).getCompiled()));
+        report("稀疏的大文法", dense);
+
+        // 检查压缩后查表的结果不变
+        CompressedLL1Table compressed = new CompressedLL1Table(dense);
+        CompiledGrammar g = dense.getGrammar();
+        for (int A=g.terminalCount(); A<g.symbolCount(); A++){
+            for (int t=0; t<g.terminalCount(); t++){
+                if (compressed.production(A, t) != dense.production(A, t)){
+                    throw new IllegalStateException("压缩后的分析表不正确: " + g.name(A) + ", " + g.name(t));
+                }
+            }
+        }
+        System.out.println("压缩后的分析表与原表相同");
+    }
+}
@@ -0,0 +1,505 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * @Description 表驱动的词法分析器（DFA），字符分类和状态转移都只需要查表
+ * @Author Jianlong
+ * @Date 2026-10-17 上午 11:05
+ */
+public class DFAScanner {
+
+    // 字符类别
+    private static final int OTHER = 0;
+    private static final int LETTER = 1;
+    private static final int DIGIT = 2;
+    private static final int BLANK = 3;
+    private static final int NEWLINE = 4;
+    private static final int COLON = 5;
+    private static final int LESS = 6;
+    private static final int GREATER = 7;
+    private static final int EQUAL = 8;
+    private static final int PLUS = 9;
+    private static final int MINUS = 10;
+    private static final int STAR = 11;
+    private static final int SLASH = 12;
+    private static final int HASH = 13;
+    private static final int COMMA = 14;
+    private static final int SEMI = 15;
+    private static final int LPAREN = 16;
+    private static final int RPAREN = 17;
+    private static final int DOT = 18;
+    // 源程序结束，不对应任何字符
+    private static final int END = 19;
+    // 类别总数
+    static final int CLASSES = 20;
+
+    // 状态，START是初始状态，回到START说明刚跳过了空白符或注释
+    static final int START = 0;
+    private static final int IDENT = 1;
+    private static final int NUMBER = 2;
+    private static final int COLON_S = 3;
+    private static final int ASSIGN_S = 4;
+    private static final int LESS_S = 5;
+    private static final int LE_S = 6;
+    private static final int NE_S = 7;
+    private static final int GREATER_S = 8;
+    private static final int GE_S = 9;
+    private static final int SLASH_S = 10;
+    private static final int LPAREN_S = 11;
+    private static final int LINE_COMMENT = 12;
+    private static final int BLOCK_COMMENT = 13;
+    private static final int BLOCK_STAR = 14;
+    private static final int PLUS_S = 15;
+    private static final int MINUS_S = 16;
+    private static final int STAR_S = 17;
+    private static final int EQUAL_S = 18;
+    private static final int HASH_S = 19;
+    private static final int COMMA_S = 20;
+    private static final int SEMI_S = 21;
+    private static final int RPAREN_S = 22;
+    private static final int DOT_S = 23;
+    private static final int ERROR_S = 24;
+    // 状态总数
+    private static final int STATES = 25;
+
+    // 停机时的特殊种别码
+    // 源程序结束（没有遇到结束标志'.'）
+    static final int SYN_END = -2;
+    // 多行注释没有结束
+    static final int SYN_UNCLOSED = -3;
+
+    // ASCII字符到字符类别的映射，非ASCII字符都是OTHER
+    static final byte[] CHAR_CLASS = new byte[128];
+    // 状态转移表，下标为 状态*CLASSES+类别，-1表示停机
+    static final int[] TRANSITION = new int[STATES * CLASSES];
+    // 停机时各状态对应的种别码
+    static final int[] ACCEPT = new int[STATES];
+
+    static {
+        for (char c='a'; c<='z'; c++){
+            CHAR_CLASS[c] = LETTER;
+            CHAR_CLASS[c - 'a' + 'A'] = LETTER;
+        }
+        for (char c='0'; c<='9'; c++){
+            CHAR_CLASS[c] = DIGIT;
+        }
+        CHAR_CLASS[' '] = BLANK;
+        CHAR_CLASS['\t'] = BLANK;
+        CHAR_CLASS['\r'] = BLANK;
+        CHAR_CLASS['\n'] = NEWLINE;
+        CHAR_CLASS[':'] = COLON;
+        CHAR_CLASS['<'] = LESS;
+        CHAR_CLASS['>'] = GREATER;
+        CHAR_CLASS['='] = EQUAL;
+        CHAR_CLASS['+'] = PLUS;
+        CHAR_CLASS['-'] = MINUS;
+        CHAR_CLASS['*'] = STAR;
+        CHAR_CLASS['/'] = SLASH;
+        CHAR_CLASS['#'] = HASH;
+        CHAR_CLASS[','] = COMMA;
+        CHAR_CLASS[';'] = SEMI;
+        CHAR_CLASS['('] = LPAREN;
+        CHAR_CLASS[')'] = RPAREN;
+        CHAR_CLASS['.'] = DOT;
+
+        // 默认全部停机
+        Arrays.fill(TRANSITION, -1);
+
+        // 初始状态
+        move(START, BLANK, START);
+        move(START, NEWLINE, START);
+        move(START, LETTER, IDENT);
+        move(START, DIGIT, NUMBER);
+        move(START, COLON, COLON_S);
+        move(START, LESS, LESS_S);
+        move(START, GREATER, GREATER_S);
+        move(START, SLASH, SLASH_S);
+        move(START, LPAREN, LPAREN_S);
+        move(START, PLUS, PLUS_S);
+        move(START, MINUS, MINUS_S);
+        move(START, STAR, STAR_S);
+        move(START, EQUAL, EQUAL_S);
+        move(START, HASH, HASH_S);
+        move(START, COMMA, COMMA_S);
+        move(START, SEMI, SEMI_S);
+        move(START, RPAREN, RPAREN_S);
+        move(START, DOT, DOT_S);
+        move(START, OTHER, ERROR_S);
+
+        // 标识符和常数
+        move(IDENT, LETTER, IDENT);
+        move(IDENT, DIGIT, IDENT);
+        move(NUMBER, DIGIT, NUMBER);
+
+        // 复合运算符
+        move(COLON_S, EQUAL, ASSIGN_S);
+        move(LESS_S, EQUAL, LE_S);
+        move(LESS_S, GREATER, NE_S);
+        move(GREATER_S, EQUAL, GE_S);
+
+        // 单行注释，遇到换行回到初始状态
+        move(SLASH_S, SLASH, LINE_COMMENT);
+        for (int c=0; c<END; c++){
+            move(LINE_COMMENT, c, LINE_COMMENT);
+        }
+        move(LINE_COMMENT, NEWLINE, START);
+
+        // 多行注释，遇到'*)'回到初始状态
+        move(LPAREN_S, STAR, BLOCK_COMMENT);
+        for (int c=0; c<END; c++){
+            move(BLOCK_COMMENT, c, BLOCK_COMMENT);
+            move(BLOCK_STAR, c, BLOCK_COMMENT);
+        }
+        move(BLOCK_COMMENT, STAR, BLOCK_STAR);
+        move(BLOCK_STAR, STAR, BLOCK_STAR);
+        move(BLOCK_STAR, RPAREN, START);
+
+        ACCEPT[START] = SYN_END;
+        ACCEPT[IDENT] = 12;
+        ACCEPT[NUMBER] = 13;
+        ACCEPT[COLON_S] = 30;
+        ACCEPT[ASSIGN_S] = 18;
+        ACCEPT[LESS_S] = 19;
+        ACCEPT[LE_S] = 20;
+        ACCEPT[NE_S] = 23;
+        ACCEPT[GREATER_S] = 21;
+        ACCEPT[GE_S] = 22;
+        ACCEPT[SLASH_S] = 17;
+        ACCEPT[LPAREN_S] = 28;
+        // 单行注释可以一直到文件末尾
+        ACCEPT[LINE_COMMENT] = SYN_END;
+        ACCEPT[BLOCK_COMMENT] = SYN_UNCLOSED;
+        ACCEPT[BLOCK_STAR] = SYN_UNCLOSED;
+        ACCEPT[PLUS_S] = 14;
+        ACCEPT[MINUS_S] = 15;
+        ACCEPT[STAR_S] = 16;
+        ACCEPT[EQUAL_S] = 24;
+        ACCEPT[HASH_S] = 25;
+        ACCEPT[COMMA_S] = 26;
+        ACCEPT[SEMI_S] = 27;
+        ACCEPT[RPAREN_S] = 29;
+        ACCEPT[DOT_S] = 0;
+        ACCEPT[ERROR_S] = -1;
+    }
+
+    private static void move(int state, int charClass, int next){
+        TRANSITION[state * CLASSES + charClass] = next;
+    }
+
+    // 保留字表
+    private final KeywordTable keywords;
+    // 上一个单词的起始位置
+    private int start;
+    // 下一次扫描的起始位置（即上一个单词的结束位置）
+    private int begin;
+    // 按字节分析时是否整块跳过空白符和注释，关闭时逐字节运行DFA
+    private boolean fastSkip = true;
+
+    public DFAScanner(){
+        this(KeywordTable.pl0());
+    }
+
+    public DFAScanner(KeywordTable keywords){
+        this.keywords = keywords;
+    }
+
+    public void setFastSkip(boolean fastSkip) {
+        this.fastSkip = fastSkip;
+    }
+
+    public int getStart() {
+        return start;
+    }
+
+    public int getBegin() {
+        return begin;
+    }
+
+    public void setBegin(int begin) {
+        this.begin = begin;
+    }
+
+    // 从begin开始运行DFA，返回识别出的单词的种别码
+    // 单词的范围记录在start和begin中
+    int next(char[] source, int begin){
+        int syn = next(source, begin, source.length);
+        if (syn == SYN_UNCLOSED){
+            throw new IllegalArgumentException("源程序的注释不匹配!");
+        }
+        return syn;
+    }
+
+    // 同上，但只看source的前length个字符，注释到这里还没有结束时返回SYN_UNCLOSED，不抛出异常
+    int next(char[] source, int begin, int length){
+        int index = begin;
+        int tokenStart = begin;
+        int state = START;
+
+        while (true){
+            int charClass;
+            if (index < length){
+                char c = source[index];
+                charClass = c < 128 ? CHAR_CLASS[c] : OTHER;
+            } else{
+                charClass = END;
+            }
+            int nextState = TRANSITION[state * CLASSES + charClass];
+            if (nextState < 0){
+                break;
+            }
+            state = nextState;
+            index++;
+            // 回到初始状态说明跳过的是空白符或注释
+            if (state == START){
+                tokenStart = index;
+            }
+        }
+
+        int syn = ACCEPT[state];
+        // 结束标志总是位于源程序末尾、长度为0（末尾是行注释时也一样），与长度为1的非法字符区分开
+        this.start = syn == SYN_END ? index : tokenStart;
+        this.begin = index;
+        return syn;
+    }
+
+    // 识别单词符号，接口与LexicalAnalysis.scanner相同
+    public LexicalAnalysis.Token scanner(char[] source, int begin){
+        int syn = next(source, begin);
+        if (syn == SYN_END || syn == -1){
+            return new LexicalAnalysis.Token("noneType", -1);
+        }
+        if (syn == 12){
+            syn = keywords.lookup(source, start, this.begin - start);
+        }
+        return new LexicalAnalysis.Token(new String(source, start, this.begin - start), syn);
+    }
+
+    // 识别出全部单词，直到遇到结束标志或非法字符
+    public List<LexicalAnalysis.Token> scanAll(char[] source){
+        List<LexicalAnalysis.Token> tokens = new ArrayList<>();
+        LexicalAnalysis.Token token;
+        int position = 0;
+        do{
+            token = scanner(source, position);
+            position = this.begin;
+            tokens.add(token);
+        } while (token.syn > 0);
+        return tokens;
+    }
+
+    // 把全部单词识别到单词缓冲区里，结果与scanAll相同
+    // 每个单词只写入几个int，不创建任何对象
+    public void tokenize(char[] source, TokenBuffer tokens){
+        tokenize(source, tokens, null);
+    }
+
+    // 同上，同时把标识符加入标识符表，单词缓冲区中记录标识符的编号
+    public void tokenize(char[] source, TokenBuffer tokens, SymbolTable symbols){
+        tokens.setSource(source);
+        int position = 0;
+        int syn;
+        do{
+            syn = nextToken(source, position);
+            position = this.begin;
+            int length = this.begin - this.start;
+            int symbol = -1;
+            if (syn == 12 && symbols != null){
+                symbol = symbols.intern(source, this.start, length);
+            }
+            tokens.add(syn, this.start, length, symbol);
+        } while (syn > 0);
+    }
+
+    // 识别一个单词并区分保留字和标识符，返回最终的种别码
+    // 源程序结束（没有结束标志）时返回-1，与scanner一致
+    // 非法字符也返回-1，但它的长度是1，结束标志的长度是0，见TokenBuffer.isEnd
+    int nextToken(char[] source, int begin){
+        return classify(source, next(source, begin));
+    }
+
+    /**
+     * 同上，但只识别到length为止，之后的字符视为不存在，用于源程序只有前面一段连续存放的情况（见EditableSource）
+     * 注释到length还没有结束时返回SYN_UNCLOSED，不抛出异常，length不是源程序的末尾时调用者可以扩大范围再识别
+     */
+    int nextToken(char[] source, int begin, int length){
+        int syn = next(source, begin, length);
+        return syn == SYN_UNCLOSED ? syn : classify(source, syn);
+    }
+
+    // 区分保留字和标识符，把SYN_END换成-1
+    private int classify(char[] source, int syn){
+        if (syn == 12){
+            syn = keywords.lookup(source, this.start, this.begin - this.start);
+        } else if (syn == SYN_END){
+            syn = -1;
+        }
+        return syn;
+    }
+
+    KeywordTable getKeywords() {
+        return keywords;
+    }
+
+    // 在字节上运行DFA，ASCII字节与字符的分类相同，非ASCII字节都是OTHER
+    // UTF-8中多字节字符的每个字节都大于127，所以只能出现在注释中
+    // source必须是小端字节序，按8字节整块跳过时要靠它找到第一个命中的字节
+    int next(ByteBuffer source, int begin){
+        int index = begin;
+        int state = START;
+        int length = source.limit();
+
+        if (fastSkip){
+            index = skipSpaces(source, index, length);
+        }
+        int tokenStart = index;
+
+        while (true){
+            int charClass;
+            if (index < length){
+                byte b = source.get(index);
+                charClass = b >= 0 ? CHAR_CLASS[b] : OTHER;
+            } else{
+                charClass = END;
+            }
+            int nextState = TRANSITION[state * CLASSES + charClass];
+            if (nextState < 0){
+                break;
+            }
+            state = nextState;
+            index++;
+            if (state == START){
+                // 连续的空白符整块跳过
+                if (fastSkip){
+                    index = skipSpaces(source, index, length);
+                }
+                tokenStart = index;
+            } else if (fastSkip && state >= LINE_COMMENT && state <= BLOCK_COMMENT){
+                // 注释中只有换行或'*'会改变状态，其余字节整块跳过
+                index = indexOf(source, index, length, state == LINE_COMMENT ? (byte) '\n' : (byte) '*');
+            }
+        }
+
+        int syn = ACCEPT[state];
+        if (syn == SYN_UNCLOSED){
+            throw new IllegalArgumentException("源程序的注释不匹配!");
+        }
+        // 结束标志总是位于源程序末尾、长度为0（末尾是行注释时也一样），与长度为1的非法字符区分开
+        this.start = syn == SYN_END ? index : tokenStart;
+        this.begin = index;
+        return syn;
+    }
+
+    // 每个字节都是0x01
+    private static final long ONES = 0x0101010101010101L;
+    // 每个字节的低7位
+    private static final long LOWS = 0x7F7F7F7F7F7F7F7FL;
+    // 每个字节的最高位
+    private static final long HIGHS = 0x8080808080808080L;
+
+    // 空白符（BLANK和NEWLINE两类）按字节重复8次
+    private static final long SPACES = ' ' * ONES;
+    private static final long TABS = '\t' * ONES;
+    private static final long RETURNS = '\r' * ONES;
+    private static final long NEWLINES = '\n' * ONES;
+
+    // 值为0的字节最高位置1，其余位都是0，不会有跨字节的进位
+    private static long zeroBytes(long x){
+        return ~(((x & LOWS) + LOWS) | x | LOWS);
+    }
+
+    /**
+     * 从index开始查找第一个等于target的字节，一次比较8个字节
+     * 异或之后等于target的字节变成0，再用位运算找出值为0的字节
+     * @return 找到的位置，找不到时返回length
+     */
+    static int indexOf(ByteBuffer source, int index, int length, byte target){
+        long pattern = (target & 0xFFL) * ONES;
+        while (index + 8 <= length){
+            long zero = zeroBytes(source.getLong(index) ^ pattern);
+            if (zero != 0){
+                return index + (Long.numberOfTrailingZeros(zero) >>> 3);
+            }
+            index += 8;
+        }
+        // 不足8个字节的部分逐个比较
+        while (index < length && source.get(index) != target){
+            index++;
+        }
+        return index;
+    }
+
+    /**
+     * 从index开始跳过连续的空白符（空格、制表符、回车和换行），一次比较8个字节
+     * 分别与四种空白符异或后找出值为0的字节，合起来就是空白符的位置
+     * @return 第一个不是空白符的位置
+     */
+    static int skipSpaces(ByteBuffer source, int index, int length){
+        while (index + 8 <= length){
+            long x = source.getLong(index);
+            long blank = zeroBytes(x ^ SPACES) | zeroBytes(x ^ TABS) | zeroBytes(x ^ RETURNS) | zeroBytes(x ^ NEWLINES);
+            // 不是空白符的字节最高位置1
+            long other = ~blank & HIGHS;
+            if (other != 0){
+                return index + (Long.numberOfTrailingZeros(other) >>> 3);
+            }
+            index += 8;
+        }
+        while (index < length && isSpace(source.get(index))){
+            index++;
+        }
+        return index;
+    }
+
+    private static boolean isSpace(byte b){
+        return b == ' ' || b == '\t' || b == '\r' || b == '\n';
+    }
+
+    // 直接在字节上识别全部单词，单词的位置是字节偏移，单词的值在需要时才解码
+    public void tokenize(ByteBuffer source, TokenBuffer tokens, SymbolTable symbols){
+        tokens.setSource(source);
+        // 按8字节整块读取时需要小端字节序，复制一个视图，不影响调用者的缓冲区
+        ByteBuffer view = source.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        int position = 0;
+        int syn;
+        do{
+            syn = next(view, position);
+            position = this.begin;
+            int length = this.begin - this.start;
+            int symbol = -1;
+            if (syn == 12){
+                syn = keywords.lookup(view, this.start, length);
+                if (syn == 12 && symbols != null){
+                    symbol = symbols.intern(view, this.start, length);
+                }
+            } else if (syn == SYN_END){
+                syn = -1;
+            }
+            tokens.add(syn, this.start, length, symbol);
+        } while (syn > 0);
+    }
+
+    /**
+     * 把源程序文件映射到内存后直接在字节上进行词法分析，不需要读入和解码整个文件
+     * 返回映射的缓冲区，单词缓冲区取单词的值时还要用到它
+     */
+    public MappedByteBuffer tokenize(Path path, TokenBuffer tokens, SymbolTable symbols) throws IOException{
+        try(FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)){
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE){
+                throw new IllegalArgumentException("源程序超过2GB，不能一次映射!");
+            }
+            // 映射在通道关闭之后仍然有效
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            tokenize(buffer, tokens, symbols);
+            return buffer;
+        }
+    }
+}
@@ -0,0 +1,249 @@
+import java.util.Arrays;
+
+/**
+ * @Description 可以增量修改的源程序和它的单词，由IncrementalLexicalAnalysis修改
+ * 源程序和单词都放在间隙缓冲区中，修改只在间隙处插入和删除，移动间隙的代价与两次修改之间的距离成正比；
+ * 间隙之后的单词记录的是相对于源程序末尾的位置，前面的修改改变了源程序的长度时，它们的位置自然跟着平移，不需要逐个修改
+ * @Author Jianlong
+ * @Date 2026-10-17 下午 17:25
+ */
+public class EditableSource {
+
+    // 源程序，[gapStart, gapEnd)是间隙
+    private char[] text;
+    private int gapStart;
+    private int gapEnd;
+
+    // 单词，下标[tokenGap, tokenGapEnd)是间隙
+    private int[] syn;
+    // 间隙之前是单词的起始位置，间隙之后是 起始位置-源程序长度
+    private int[] start;
+    private int[] length;
+    private int[] symbol;
+    private int tokenGap;
+    private int tokenGapEnd;
+
+    /**
+     * 复制一次分析的结果，之后的修改都在副本上进行
+     * @param tokens 由DFAScanner.tokenize(char[], ...)得到；按字节分析的结果没有char[]源程序，不能修改
+     */
+    public EditableSource(TokenBuffer tokens){
+        char[] source = tokens.getSource();
+        if (source == null){
+            throw new IllegalArgumentException("只有以char[]为源程序的单词缓冲区才能增量修改，按字节分析的结果需要重新分析!");
+        }
+        int n = tokens.size();
+        this.text = Arrays.copyOf(source, source.length + 256);
+        this.gapStart = source.length;
+        this.gapEnd = text.length;
+
+        int capacity = n + 64;
+        this.syn = new int[capacity];
+        this.start = new int[capacity];
+        this.length = new int[capacity];
+        this.symbol = new int[capacity];
+        for (int i=0; i<n; i++){
+            syn[i] = tokens.syn(i);
+            start[i] = tokens.start(i);
+            length[i] = tokens.length(i);
+            symbol[i] = tokens.symbol(i);
+        }
+        this.tokenGap = n;
+        this.tokenGapEnd = capacity;
+    }
+
+    // 源程序的长度
+    public int length() {
+        return text.length - (gapEnd - gapStart);
+    }
+
+    public char charAt(int i) {
+        return text[i < gapStart ? i : i + gapEnd - gapStart];
+    }
+
+    // 单词个数
+    public int size() {
+        return syn.length - (tokenGapEnd - tokenGap);
+    }
+
+    // 第i个单词在数组中的下标
+    private int slot(int i){
+        return i < tokenGap ? i : i + tokenGapEnd - tokenGap;
+    }
+
+    public int syn(int i) {
+        return syn[slot(i)];
+    }
+
+    public int start(int i) {
+        return i < tokenGap ? start[i] : start[slot(i)] + length();
+    }
+
+    public int length(int i) {
+        return length[slot(i)];
+    }
+
+    public int symbol(int i) {
+        return symbol[slot(i)];
+    }
+
+    // 第i个单词的结束位置，也是下一个单词的扫描起点
+    int end(int i){
+        return start(i) + length(i);
+    }
+
+    // 源程序[from, to)部分的字符串
+    public String substring(int from, int to){
+        char[] chars = new char[to - from];
+        for (int i=from; i<to; i++){
+            chars[i - from] = charAt(i);
+        }
+        return new String(chars);
+    }
+
+    public String text(int i){
+        int from = start(i);
+        return substring(from, from + length(i));
+    }
+
+    // 转换成Token对象，与TokenBuffer.token相同
+    public LexicalAnalysis.Token token(int i){
+        if (syn(i) == -1){
+            return new LexicalAnalysis.Token("noneType", -1);
+        }
+        return new LexicalAnalysis.Token(text(i), syn(i));
+    }
+
+    @Override
+    public String toString() {
+        return substring(0, length());
+    }
+
+    /**
+     * 复制出一个普通的单词缓冲区，用于整体的语法分析等，代价与源程序的长度成正比
+     */
+    public TokenBuffer toTokenBuffer(){
+        int n = size();
+        TokenBuffer tokens = new TokenBuffer(n);
+        tokens.setSource(toString().toCharArray());
+        for (int i=0; i<n; i++){
+            tokens.add(syn(i), start(i), length(i), symbol(i));
+        }
+        return tokens;
+    }
+
+    // 移动单词的间隙，使它位于第index个单词之前，越过间隙的单词在两种位置表示之间转换
+    void moveTokenGap(int index){
+        int total = length();
+        while (tokenGap > index){
+            tokenGap--;
+            tokenGapEnd--;
+            syn[tokenGapEnd] = syn[tokenGap];
+            start[tokenGapEnd] = start[tokenGap] - total;
+            length[tokenGapEnd] = length[tokenGap];
+            symbol[tokenGapEnd] = symbol[tokenGap];
+        }
+        while (tokenGap < index){
+            syn[tokenGap] = syn[tokenGapEnd];
+            start[tokenGap] = start[tokenGapEnd] + total;
+            length[tokenGap] = length[tokenGapEnd];
+            symbol[tokenGap] = symbol[tokenGapEnd];
+            tokenGap++;
+            tokenGapEnd++;
+        }
+    }
+
+    // 移动源程序的间隙，使它从position开始
+    private void moveGap(int position){
+        if (position < gapStart){
+            int n = gapStart - position;
+            System.arraycopy(text, position, text, gapEnd - n, n);
+            gapStart -= n;
+            gapEnd -= n;
+        } else if (position > gapStart){
+            int n = position - gapStart;
+            System.arraycopy(text, gapEnd, text, gapStart, n);
+            gapStart += n;
+            gapEnd += n;
+        }
+    }
+
+    /**
+     * 修改源程序的字符，单词不变
+     * 间隙之后的单词随源程序的长度平移，所以调用前要把单词的间隙移到第一个受影响的单词之前
+     */
+    void replace(int offset, int removed, String inserted){
+        moveGap(offset);
+        gapEnd += removed;
+        int n = inserted.length();
+        if (gapEnd - gapStart < n){
+            // 间隙不够时扩容，间隙之后的部分移到新数组的末尾
+            int tail = text.length - gapEnd;
+            char[] bigger = new char[Math.max(text.length * 2, length() + n + 256)];
+            System.arraycopy(text, 0, bigger, 0, gapStart);
+            System.arraycopy(text, gapEnd, bigger, bigger.length - tail, tail);
+            gapEnd = bigger.length - tail;
+            text = bigger;
+        }
+        inserted.getChars(0, n, text, gapStart);
+        gapStart += n;
+    }
+
+    /**
+     * 从position开始识别一个单词，结果记录在scanner中
+     * DFAScanner需要连续的字符，所以把间隙向后移到单词之后；单词碰到了间隙时扩大范围重新识别，
+     * 移动的字符数与单词（包括之前的空白和注释）的长度成正比
+     */
+    int nextToken(DFAScanner scanner, int position){
+        int total = length();
+        int window = 64;
+        while (true){
+            if (gapStart < Math.min(total, position + window)){
+                moveGap(Math.min(total, position + window));
+            }
+            int syn = scanner.nextToken(text, position, gapStart);
+            // DFA在间隙之前停机，或者间隙已经在源程序末尾，单词都是完整的
+            if (scanner.getBegin() < gapStart || gapStart == total){
+                if (syn == DFAScanner.SYN_UNCLOSED){
+                    throw new IllegalArgumentException("源程序的注释不匹配!");
+                }
+                return syn;
+            }
+            window *= 2;
+        }
+    }
+
+    /**
+     * 用relexed中的单词替换[from, to)的单词，调用前单词的间隙要在from处
+     * relexed中的单词是刚用nextToken识别出来的，还在源程序的间隙之前，可以直接加入标识符表
+     */
+    void replaceTokens(int from, int to, TokenBuffer relexed, SymbolTable symbols){
+        tokenGapEnd += to - from;
+        int n = relexed.size();
+        if (tokenGapEnd - tokenGap < n){
+            int tail = syn.length - tokenGapEnd;
+            int capacity = Math.max(syn.length * 2, size() + n + 64);
+            syn = grow(syn, capacity, tail);
+            start = grow(start, capacity, tail);
+            length = grow(length, capacity, tail);
+            symbol = grow(symbol, capacity, tail);
+            tokenGapEnd = capacity - tail;
+        }
+        for (int i=0; i<n; i++){
+            int s = relexed.syn(i);
+            syn[tokenGap] = s;
+            start[tokenGap] = relexed.start(i);
+            length[tokenGap] = relexed.length(i);
+            symbol[tokenGap] = s == 12 && symbols != null ? symbols.intern(text, relexed.start(i), relexed.length(i)) : -1;
+            tokenGap++;
+        }
+    }
+
+    // 扩容，间隙之后的tail个元素移到新数组的末尾
+    private int[] grow(int[] array, int capacity, int tail){
+        int[] bigger = new int[capacity];
+        System.arraycopy(array, 0, bigger, 0, tokenGap);
+        System.arraycopy(array, array.length - tail, bigger, capacity - tail, tail);
+        return bigger;
+    }
+}
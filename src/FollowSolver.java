@@ -0,0 +1,248 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * @Description 按强连通分量的顺序计算FOLLOW集（DeRemer-Pennello的方法）
+ * 先建立非终结符之间的包含关系A->X（FOLLOW(A)包含于FOLLOW(X)），同一个强连通分量中的非终结符FOLLOW集相同，
+ * 把分量缩成一个点之后得到有向无环图，按拓扑顺序传播，每条边只做一次集合的并；很大的文法中互不依赖的同一层分量并行计算
+ * @Author Jianlong
+ * @Date 2026-10-17 下午 20:00
+ */
+public class FollowSolver {
+
+    // 非终结符少于这个个数时顺序计算
+    private static final int MIN_PARALLEL_NONTERMINALS = 1 << 12;
+    // 一个并行任务至少处理的分量个数
+    private static final int MIN_TASK_COMPONENTS = 256;
+
+    private final ForkJoinPool pool;
+    private final int minParallel;
+
+    public FollowSolver(){
+        this(ForkJoinPool.commonPool(), MIN_PARALLEL_NONTERMINALS);
+    }
+
+    /**
+     * @param pool 并行计算使用的线程池
+     * @param minParallel 非终结符个数达到这个值时并行计算
+     */
+    public FollowSolver(ForkJoinPool pool, int minParallel){
+        this.pool = pool;
+        this.minParallel = minParallel;
+    }
+
+    /**
+     * 计算FOLLOW集，下标都是 非终结符编号-终结符个数
+     * @param grammar 文法
+     * @param nullable 非终结符能否推导出空串
+     * @param first 非终结符的FIRST集
+     * @param follow 存放结果，每一行已经分配好并且为空
+     */
+    public void solve(CompiledGrammar grammar, boolean[] nullable, long[][] first, long[][] follow){
+        int T = grammar.terminalCount();
+        int N = nullable.length;
+        int words = (T + 63) >>> 6;
+
+        // 直接得到的部分：后缀的FIRST集，以及开始符号的界符；同时建立包含关系
+        GrammarSets.set(follow[grammar.getStart() - T], grammar.getEnd());
+        GrammarSets.EdgeList includes = new GrammarSets.EdgeList();
+        long[] trail = new long[words];
+        for (int p=0; p<grammar.productionCount(); p++){
+            int A = grammar.lhs(p) - T;
+            int[] right = grammar.rhs(p);
+            Arrays.fill(trail, 0);
+            boolean trailNullable = true;
+
+            for (int i=right.length-1; i>=0; i--){
+                int symbol = right[i];
+                if (grammar.isTerminal(symbol)){
+                    Arrays.fill(trail, 0);
+                    GrammarSets.set(trail, symbol);
+                    trailNullable = false;
+                    continue;
+                }
+
+                int X = symbol - T;
+                GrammarSets.or(follow[X], trail);
+                if (trailNullable && X != A){
+                    includes.add(A, X);
+                }
+                if (nullable[X]){
+                    GrammarSets.or(trail, first[X]);
+                } else{
+                    System.arraycopy(first[X], 0, trail, 0, words);
+                    trailNullable = false;
+                }
+            }
+        }
+
+        int[][] successors = includes.toAdjacency(N);
+        SCC scc = new SCC(successors);
+        int C = scc.count();
+
+        // 每个分量的集合是其中所有非终结符直接得到的部分的并
+        long[][] sets = new long[C][];
+        for (int c=0; c<C; c++){
+            int[] members = scc.members(c);
+            sets[c] = follow[members[0]];
+            for (int k=1; k<members.length; k++){
+                GrammarSets.or(sets[c], follow[members[k]]);
+            }
+        }
+
+        // 缩点后的前驱，u->v时v所在分量的编号更小，所以前驱的编号总是更大
+        GrammarSets.EdgeList condensed = new GrammarSets.EdgeList();
+        for (int u=0; u<N; u++){
+            for (int v : successors[u]){
+                int cu = scc.component(u);
+                int cv = scc.component(v);
+                if (cu != cv){
+                    condensed.add(cv, cu);
+                }
+            }
+        }
+        int[][] predecessors = condensed.toAdjacency(C);
+
+        // 按编号从大到小就是拓扑顺序，层号是最长的前驱链的长度，同一层的分量互不依赖
+        int[] level = new int[C];
+        int levels = 0;
+        for (int c=C-1; c>=0; c--){
+            for (int d : predecessors[c]){
+                level[c] = Math.max(level[c], level[d] + 1);
+            }
+            levels = Math.max(levels, level[c] + 1);
+        }
+        int[][] byLevel = group(level, levels);
+
+        boolean parallel = N >= minParallel;
+        for (int[] components : byLevel){
+            if (parallel && components.length >= MIN_TASK_COMPONENTS * 2){
+                evaluateParallel(components, predecessors, sets);
+            } else{
+                evaluate(components, 0, components.length, predecessors, sets);
+            }
+        }
+
+        for (int X=0; X<N; X++){
+            long[] result = sets[scc.component(X)];
+            if (follow[X] != result){
+                System.arraycopy(result, 0, follow[X], 0, words);
+            }
+        }
+    }
+
+    // 把分量按层分组
+    private static int[][] group(int[] level, int levels){
+        int[] counts = new int[levels];
+        for (int l : level){
+            counts[l]++;
+        }
+        int[][] byLevel = new int[levels][];
+        for (int l=0; l<levels; l++){
+            byLevel[l] = new int[counts[l]];
+            counts[l] = 0;
+        }
+        for (int c=0; c<level.length; c++){
+            byLevel[level[c]][counts[level[c]]++] = c;
+        }
+        return byLevel;
+    }
+
+    // 每个分量并入所有前驱的集合，前驱都在更早的层中，已经是最终结果
+    private static void evaluate(int[] components, int from, int to, int[][] predecessors, long[][] sets){
+        for (int i=from; i<to; i++){
+            int c = components[i];
+            for (int d : predecessors[c]){
+                GrammarSets.or(sets[c], sets[d]);
+            }
+        }
+    }
+
+    // 同一层的分量只写自己的集合、只读更早的层，可以分成几段同时计算
+    private void evaluateParallel(int[] components, int[][] predecessors, long[][] sets){
+        int n = Math.min(pool.getParallelism() * 4, components.length / MIN_TASK_COMPONENTS);
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (int k=0; k<n; k++){
+            int from = (int) ((long) components.length * k / n);
+            int to = (int) ((long) components.length * (k + 1) / n);
+            tasks.add(() -> {
+                evaluate(components, from, to, predecessors, sets);
+                return null;
+            });
+        }
+
+        try{
+            for (Future<Void> future : pool.invokeAll(tasks)){
+                future.get();
+            }
+        } catch (InterruptedException e){
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("FOLLOW集的计算被中断!", e);
+        } catch (ExecutionException e){
+            throw new IllegalStateException("FOLLOW集的计算出错!", e.getCause());
+        }
+    }
+
+    public static void main(String[] args) {
+        // 随机生成一个很大的文法，非终结符和终结符都用单个字符表示
+        int N = 20000;
+        int T = 200;
+        Random random = new Random(1);
+        String[] Vn = new String[N];
+        for (int i=0; i<N; i++){
+            Vn[i] = String.valueOf((char) (0x4E00 + i));
+        }
+        String[] Vt = new String[T + 1];
+        for (int i=0; i<T; i++){
+            Vt[i] = String.valueOf((char) (0x100 + i));
+        }
+        Vt[T] = "NULL";
+
+        String[] P = new String[N];
+        for (int i=0; i<N; i++){
+            StringBuilder builder = new StringBuilder(Vn[i]).append("->");
+            int alternatives = 1 + random.nextInt(3);
+            for (int j=0; j<alternatives; j++){
+                if (j > 0){
+                    builder.append('|');
+                }
+                int length = random.nextInt(5);
+                if (length == 0){
+                    builder.append("NULL");
+                }
+                for (int k=0; k<length; k++){
+                    builder.append(random.nextInt(4) == 0 ? Vt[random.nextInt(T)] : Vn[random.nextInt(N)]);
+                }
+            }
+            P[i] = builder.toString();
+        }
+        CompiledGrammar g = new Grammar(Vn, Vt, P, Vn[0]).getCompiled();
+        System.out.println("非终结符: " + g.nonterminalCount() + ", 产生式: " + g.productionCount());
+
+        FollowSolver sequential = new FollowSolver(ForkJoinPool.commonPool(), Integer.MAX_VALUE);
+        FollowSolver parallel = new FollowSolver();
+        GrammarSets a = null;
+        GrammarSets b = null;
+        for (int round=0; round<5; round++){
+            long t0 = System.nanoTime();
+            a = new GrammarSets(g, sequential);
+            long t1 = System.nanoTime();
+            b = new GrammarSets(g, parallel);
+            long t2 = System.nanoTime();
+            System.out.printf("顺序: %.1f ms, 并行: %.1f ms%n", (t1 - t0) / 1e6, (t2 - t1) / 1e6);
+        }
+
+        for (int x=g.terminalCount(); x<g.symbolCount(); x++){
+            if (!Arrays.equals(a.follow(x), b.follow(x))){
+                throw new IllegalStateException("结果不一致: " + g.name(x));
+            }
+        }
+        System.out.println("结果一致");
+    }
+}
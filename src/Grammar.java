@@ -1,4 +1,5 @@
 import java.util.*;
+import java.util.regex.Pattern;
 
 /**
  * @Description 文法类
@@ -6,6 +7,9 @@ import java.util.*;
  * @Date 2020-05-07 下午 19:54
  */
 public class Grammar {
+    // 多字符符号写法中符号之间的分隔
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
     // 存储文法的映射（产生式规则集合）
     private Map<String, String[]> P;
     // 文法的开始符号
@@ -14,6 +18,11 @@ public class Grammar {
     private Set<String> nonEndChars;
     // 终结符号集
     private Set<String> endChars;
+    // 按输入顺序保存的符号，修改产生式后重新编码时符号的编号保持不变
+    private String[] Vn;
+    private String[] Vt;
+    // 编码后的文法，供各种分析使用，避免每次都拆分字符串
+    private CompiledGrammar compiled;
 
     public Grammar(String[] Vn, String[] Vt, String[] P, String start){
         storeGrammar(Vn, Vt, P, start);
@@ -24,17 +33,22 @@ public class Grammar {
 
         this.nonEndChars = new HashSet<>();
         this.endChars = new HashSet<>();
+        this.Vn = Vn.clone();
+        this.Vt = Vt.clone();
         this.start = start;
         this.P = new HashMap<>();
 
         try{
             // 存储产生式
             for (String value : P) {
-                // 分割左部、右部
-                String[] split1 = value.split("->");
-                // 分割右部的不同产生式
+                // 分割左部、右部，右部中可能有 > 等符号，只按第一个->分割
+                String[] split1 = value.split("->", 2);
+                // 分割右部的不同产生式，去掉两边的空白
                 String[] split2 = split1[1].split("\\|");
-                this.P.put(split1[0], split2);
+                for (int i=0; i<split2.length; i++){
+                    split2[i] = split2[i].trim();
+                }
+                this.P.put(split1[0].trim(), split2);
             }
 
             // 存储符号集
@@ -44,59 +58,113 @@ public class Grammar {
             System.out.println("输入文法有错误!");
             e.printStackTrace();
         }
+
+        // 所有符号编号，每个候选式只拆分一次
+        this.compiled = new CompiledGrammar(this, Vn, Vt);
+    }
+
+    // 增加一条产生式 left->right
+    public void addProduction(String left, String right){
+        String[] rightItems = P.getOrDefault(left, new String[0]);
+        String[] temp = Arrays.copyOf(rightItems, rightItems.length + 1);
+        temp[rightItems.length] = right;
+        updateProduction(left, temp);
+    }
+
+    // 删除产生式 left->right
+    public void removeProduction(String left, String right){
+        String[] rightItems = P.getOrDefault(left, new String[0]);
+        List<String> temp = new ArrayList<>(Arrays.asList(rightItems));
+        if (!temp.remove(right)){
+            throw new IllegalArgumentException("产生式不存在: " + left + "->" + right);
+        }
+        updateProduction(left, temp.toArray(new String[0]));
     }
 
-    // 打印文法
+    // 把产生式 left->oldRight 替换为 left->newRight，候选式的位置不变
+    public void replaceProduction(String left, String oldRight, String newRight){
+        String[] rightItems = P.getOrDefault(left, new String[0]).clone();
+        int i = Arrays.asList(rightItems).indexOf(oldRight);
+        if (i < 0){
+            throw new IllegalArgumentException("产生式不存在: " + left + "->" + oldRight);
+        }
+        rightItems[i] = newRight;
+        updateProduction(left, rightItems);
+    }
+
+    // 修改一个非终结符的全部候选式并重新编码，新的候选式有错误时恢复原来的文法
+    private void updateProduction(String left, String[] rightItems){
+        if (!nonEndChars.contains(left)){
+            throw new IllegalArgumentException("产生式的左部不是非终结符: " + left);
+        }
+        String[] old = P.put(left, rightItems);
+        try{
+            this.compiled = new CompiledGrammar(this, Vn, Vt);
+        } catch (IllegalArgumentException e){
+            if (old == null){
+                P.remove(left);
+            } else{
+                P.put(left, old);
+            }
+            throw e;
+        }
+    }
+
+    // 打印文法，整段拼接好之后一次输出
     public void printGrammar(){
+        System.out.print(toString());
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
 
-        System.out.println("此文法的非终结符号集为: ");
-        System.out.print("{ ");
+        sb.append("此文法的非终结符号集为: \n");
+        sb.append("{ ");
         for (String value : nonEndChars){
-            System.out.print(value + " ");
+            sb.append(value).append(' ');
         }
-        System.out.print("}");
+        sb.append("}\n");
 
-        System.out.println();
-
-        System.out.println("此文法的终结符号集为: ");
-        System.out.print("{ ");
+        sb.append("此文法的终结符号集为: \n");
+        sb.append("{ ");
         for (String value : endChars){
-            System.out.print(value + " ");
+            sb.append(value).append(' ');
         }
-        System.out.print("}");
-
-        System.out.println();
+        sb.append("}\n");
 
-        System.out.println("此文法的产生式规则集为: ");
-        System.out.println("{ ");
+        sb.append("此文法的产生式规则集为: \n");
+        sb.append("{ \n");
         // 需要遍历map
         for (Map.Entry<String, String[]> entry : P.entrySet()){
-            String leftItem = entry.getKey();
-            String[] rightItems = entry.getValue();
-            System.out.print("  " + leftItem + " -> ");
-            for (int i=0; i<rightItems.length; i++){
-                if (i == rightItems.length - 1){
-                    System.out.print(rightItems[i]);
-                } else {
-                    System.out.print(rightItems[i] + " | ");
-                }
-            }
-            System.out.println();
+            sb.append("  ").append(entry.getKey()).append(" -> ");
+            sb.append(String.join(" | ", entry.getValue()));
+            sb.append('\n');
         }
-        System.out.print("}");
-
-        System.out.println();
+        sb.append("}\n");
 
-        System.out.println("此文法的开始符号为: ");
-        System.out.println(start);
-        System.out.println();
+        sb.append("此文法的开始符号为: \n");
+        sb.append(start).append("\n\n");
+        return sb.toString();
     }
 
     // 将字符串中的符号拆开
+    // 原来的写法每个符号是一个字符（可以带'）；右部中有空白符时按空白符拆开，符号可以是多个字符，如 begin S end
     public List<String> disassemble(String value){
         char c;
         List<String> cList = new ArrayList<>();
 
+        String trimmed = value.trim();
+        // 整个右部就是一个符号，如 ident、<=
+        if (endChars.contains(trimmed) || nonEndChars.contains(trimmed)){
+            cList.add(trimmed);
+            return cList;
+        }
+        if (WHITESPACE.matcher(trimmed).find()){
+            Collections.addAll(cList, WHITESPACE.split(trimmed));
+            return cList;
+        }
+
         // 将右部分解为一个个的符号
         for (int i=0; i<value.length(); i++){
             if (value.equals("NULL")){
@@ -129,4 +197,8 @@ public class Grammar {
     public Set<String> getEndChars() {
         return endChars;
     }
+
+    public CompiledGrammar getCompiled() {
+        return compiled;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,610 @@
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * @Description 用位集合和工作表迭代到不动点的方式计算FIRST、FOLLOW和SELECT集
+ * 每个集合是一个long数组，第t位表示编号为t的终结符，空串单独用nullable表示
+ * @Author Jianlong
+ * @Date 2026-10-17 下午 18:10
+ */
+public class GrammarSets {
+
+    private final CompiledGrammar grammar;
+    // 终结符个数
+    private final int T;
+    // 一个集合占用的long个数
+    private final int words;
+
+    // 非终结符能否推导出空串，下标为 非终结符编号-T
+    private final boolean[] nullable;
+    // 非终结符的FIRST集，不含空串
+    private final long[][] first;
+    // 非终结符的FOLLOW集
+    private final long[][] follow;
+    // 产生式右部能否推导出空串
+    private final boolean[] productionNullable;
+    // 产生式的SELECT集
+    private final long[][] select;
+
+    // 增量计算时，相对于原来的结果FIRST集（含能否推导出空串）或FOLLOW集发生变化的非终结符，全部重新计算时为null
+    private boolean[] firstChanged;
+    private boolean[] followChanged;
+    // 增量计算时重新计算了SELECT集的产生式
+    private boolean[] selectRecomputed;
+
+    // 默认的FOLLOW集计算方法，没有状态，可以共享
+    private static final FollowSolver FOLLOW_SOLVER = new FollowSolver();
+
+    public GrammarSets(CompiledGrammar grammar){
+        this(grammar, FOLLOW_SOLVER);
+    }
+
+    // 用给定的方法计算FOLLOW集，例如指定线程池
+    public GrammarSets(CompiledGrammar grammar, FollowSolver solver){
+        this.grammar = grammar;
+        this.T = grammar.terminalCount();
+        this.words = (T + 63) >>> 6;
+
+        int N = grammar.nonterminalCount();
+        this.nullable = new boolean[N];
+        this.first = new long[N][words];
+        this.follow = new long[N][words];
+        this.productionNullable = new boolean[grammar.productionCount()];
+        this.select = new long[grammar.productionCount()][];
+
+        calculateNullable();
+        calculateFIRST();
+        // FOLLOW集按包含关系的强连通分量计算
+        solver.solve(grammar, nullable, first, follow);
+        calculateSELECT();
+    }
+
+    /**
+     * 计算能推导出空串的非终结符
+     * 每条产生式记录右部还有几个符号没有确定能推导出空串，减到0时左部就能推导出空串，
+     * 每条产生式的每个符号最多处理一次
+     */
+    private void calculateNullable(){
+        int P = grammar.productionCount();
+        int[] remaining = new int[P];
+
+        // 非终结符出现在哪些产生式的右部，同一个右部出现几次就记几次
+        int[] counts = new int[nullable.length];
+        for (int p=0; p<P; p++){
+            for (int symbol : grammar.rhs(p)){
+                if (grammar.isNonterminal(symbol)){
+                    counts[symbol - T]++;
+                }
+            }
+        }
+        int[][] occurrences = new int[nullable.length][];
+        for (int A=0; A<nullable.length; A++){
+            occurrences[A] = new int[counts[A]];
+            counts[A] = 0;
+        }
+
+        int[] queue = new int[nullable.length];
+        int tail = 0;
+        for (int p=0; p<P; p++){
+            int[] right = grammar.rhs(p);
+            boolean hasTerminal = false;
+            for (int symbol : right){
+                if (grammar.isTerminal(symbol)){
+                    hasTerminal = true;
+                } else{
+                    occurrences[symbol - T][counts[symbol - T]++] = p;
+                }
+            }
+            // 含有终结符的右部不可能推导出空串
+            remaining[p] = hasTerminal ? -1 : right.length;
+            if (remaining[p] == 0){
+                int A = grammar.lhs(p) - T;
+                if (!nullable[A]){
+                    nullable[A] = true;
+                    queue[tail++] = A;
+                }
+            }
+        }
+
+        for (int head=0; head<tail; head++){
+            for (int p : occurrences[queue[head]]){
+                if (remaining[p] > 0 && --remaining[p] == 0){
+                    int A = grammar.lhs(p) - T;
+                    if (!nullable[A]){
+                        nullable[A] = true;
+                        queue[tail++] = A;
+                    }
+                }
+            }
+        }
+
+        for (int p=0; p<P; p++){
+            productionNullable[p] = remaining[p] == 0;
+        }
+    }
+
+    /**
+     * 计算FIRST集
+     * 对产生式A->X1X2...Xn，在X1...Xi-1都能推导出空串时，Xi是终结符就直接加入FIRST(A)，
+     * 是非终结符就记一条边Xi->A，表示FIRST(Xi)包含于FIRST(A)，然后沿着边传播直到不再变化
+     */
+    private void calculateFIRST(){
+        EdgeList edges = new EdgeList();
+        for (int p=0; p<grammar.productionCount(); p++){
+            int A = grammar.lhs(p) - T;
+            for (int symbol : grammar.rhs(p)){
+                if (grammar.isTerminal(symbol)){
+                    set(first[A], symbol);
+                    break;
+                }
+                edges.add(symbol - T, A);
+                if (!nullable[symbol - T]){
+                    break;
+                }
+            }
+        }
+        propagate(first, edges.toAdjacency(nullable.length));
+    }
+
+    private void calculateSELECT(){
+        for (int p=0; p<grammar.productionCount(); p++){
+            calculateSELECT(p);
+        }
+    }
+
+    // SELECT(A->α) = FIRST(α)，α能推导出空串时再加上FOLLOW(A)
+    private void calculateSELECT(int p){
+        long[] result = new long[words];
+        boolean all = true;
+        for (int symbol : grammar.rhs(p)){
+            if (grammar.isTerminal(symbol)){
+                set(result, symbol);
+                all = false;
+                break;
+            }
+            or(result, first[symbol - T]);
+            if (!nullable[symbol - T]){
+                all = false;
+                break;
+            }
+        }
+        productionNullable[p] = all;
+        if (all){
+            or(result, follow[grammar.lhs(p) - T]);
+        }
+        select[p] = result;
+    }
+
+    /**
+     * 修改了一个非终结符的产生式之后增量地计算，只重新计算受影响的非终结符
+     * 修改前后的文法必须有相同的符号集，即由同一个Grammar修改产生式得到
+     * @param old 修改前的结果
+     * @param grammar 修改后的文法
+     * @param changed 产生式被修改的非终结符编号
+     */
+    public GrammarSets(GrammarSets old, CompiledGrammar grammar, int changed){
+        if (old.grammar.terminalCount() != grammar.terminalCount()
+                || old.grammar.nonterminalCount() != grammar.nonterminalCount()){
+            throw new IllegalArgumentException("文法的符号集发生了变化，不能增量计算!");
+        }
+        this.grammar = grammar;
+        this.T = grammar.terminalCount();
+        this.words = old.words;
+
+        int N = grammar.nonterminalCount();
+        // 不受影响的集合直接共用原来的数组，受影响的重新分配
+        this.nullable = old.nullable.clone();
+        this.first = old.first.clone();
+        this.follow = old.follow.clone();
+        this.productionNullable = new boolean[grammar.productionCount()];
+        this.select = new long[grammar.productionCount()][];
+        this.firstChanged = new boolean[N];
+        this.followChanged = new boolean[N];
+        this.selectRecomputed = new boolean[grammar.productionCount()];
+
+        updateFIRST(old, changed - T);
+        updateFOLLOW(old, changed - T);
+        updateSELECT(old, changed - T);
+    }
+
+    /**
+     * 重新计算直接或间接用到被修改的非终结符的那些非终结符的FIRST集
+     * 这些非终结符之间按“右部含有”关系求强连通分量，按依赖的先后逐个分量迭代到不动点，
+     * 分量外的集合此时已经是最终结果，分量内从空集开始迭代得到的是最小不动点
+     */
+    private void updateFIRST(GrammarSets old, int changed){
+        int N = nullable.length;
+        boolean[] affected = new boolean[N];
+        int[] list = new int[N];
+        int size = 0;
+        affected[changed] = true;
+        list[size++] = changed;
+        for (int head=0; head<size; head++){
+            for (int p : grammar.occurrencesOf(list[head] + T)){
+                int A = grammar.lhs(p) - T;
+                if (!affected[A]){
+                    affected[A] = true;
+                    list[size++] = A;
+                }
+            }
+        }
+        int[] roots = Arrays.copyOf(list, size);
+
+        // 只保留受影响的非终结符之间的边
+        EdgeList edges = new EdgeList();
+        for (int A : roots){
+            for (int p : grammar.productionsOf(A + T)){
+                for (int symbol : grammar.rhs(p)){
+                    if (grammar.isNonterminal(symbol) && affected[symbol - T]){
+                        edges.add(A, symbol - T);
+                    }
+                }
+            }
+        }
+        SCC scc = new SCC(edges.toAdjacency(N), roots);
+
+        for (int c=0; c<scc.count(); c++){
+            int[] members = scc.members(c);
+            for (int A : members){
+                nullable[A] = false;
+                first[A] = new long[words];
+            }
+            boolean changing = true;
+            while (changing){
+                changing = false;
+                for (int A : members){
+                    for (int p : grammar.productionsOf(A + T)){
+                        boolean all = true;
+                        for (int symbol : grammar.rhs(p)){
+                            if (grammar.isTerminal(symbol)){
+                                if (!get(first[A], symbol)){
+                                    set(first[A], symbol);
+                                    changing = true;
+                                }
+                                all = false;
+                                break;
+                            }
+                            changing |= or(first[A], first[symbol - T]);
+                            if (!nullable[symbol - T]){
+                                all = false;
+                                break;
+                            }
+                        }
+                        if (all && !nullable[A]){
+                            nullable[A] = true;
+                            changing = true;
+                        }
+                    }
+                }
+            }
+        }
+
+        for (int A : roots){
+            firstChanged[A] = nullable[A] != old.nullable[A] || !Arrays.equals(first[A], old.first[A]);
+        }
+    }
+
+    /**
+     * 重新计算受影响的非终结符的FOLLOW集
+     * 受影响的有：被修改的产生式（修改前后）右部中的非终结符，出现在FIRST集变化了的非终结符之前的非终结符，
+     * 以及沿着“FOLLOW(A)包含于FOLLOW(X)”的边从它们能到达的非终结符
+     */
+    private void updateFOLLOW(GrammarSets old, int changed){
+        int N = nullable.length;
+        boolean[] affected = new boolean[N];
+        int[] list = new int[N];
+        int size = 0;
+
+        // 被修改的产生式右部中的非终结符，符号编号修改前后相同
+        for (CompiledGrammar g : new CompiledGrammar[]{old.grammar, grammar}){
+            for (int p : g.productionsOf(changed + T)){
+                for (int symbol : g.rhs(p)){
+                    if (g.isNonterminal(symbol) && !affected[symbol - T]){
+                        affected[symbol - T] = true;
+                        list[size++] = symbol - T;
+                    }
+                }
+            }
+        }
+        // 后面的符号FIRST集或能否推导出空串变化了
+        for (int Y=0; Y<N; Y++){
+            if (!firstChanged[Y]){
+                continue;
+            }
+            for (int p : grammar.occurrencesOf(Y + T)){
+                int[] right = grammar.rhs(p);
+                int last = right.length - 1;
+                while (right[last] != Y + T){
+                    last--;
+                }
+                for (int i=0; i<last; i++){
+                    if (grammar.isNonterminal(right[i]) && !affected[right[i] - T]){
+                        affected[right[i] - T] = true;
+                        list[size++] = right[i] - T;
+                    }
+                }
+            }
+        }
+        // 沿着包含关系传递
+        for (int head=0; head<size; head++){
+            int A = list[head];
+            for (int p : grammar.productionsOf(A + T)){
+                int[] right = grammar.rhs(p);
+                for (int i=right.length-1; i>=0 && grammar.isNonterminal(right[i]); i--){
+                    int X = right[i] - T;
+                    if (!affected[X]){
+                        affected[X] = true;
+                        list[size++] = X;
+                    }
+                    if (!nullable[X]){
+                        break;
+                    }
+                }
+            }
+        }
+        int[] roots = Arrays.copyOf(list, size);
+
+        for (int X : roots){
+            follow[X] = new long[words];
+            if (X + T == grammar.getStart()){
+                set(follow[X], grammar.getEnd());
+            }
+        }
+
+        // 重新收集受影响的非终结符在各个右部中得到的FOLLOW集，
+        // 左部不受影响时它的FOLLOW集已经是最终结果，直接并入，否则记一条边
+        EdgeList edges = new EdgeList();
+        long[] trail = new long[words];
+        for (int X : roots){
+            for (int p : grammar.occurrencesOf(X + T)){
+                int A = grammar.lhs(p) - T;
+                int[] right = grammar.rhs(p);
+                Arrays.fill(trail, 0);
+                boolean trailNullable = true;
+
+                for (int i=right.length-1; i>=0; i--){
+                    int symbol = right[i];
+                    if (grammar.isTerminal(symbol)){
+                        Arrays.fill(trail, 0);
+                        set(trail, symbol);
+                        trailNullable = false;
+                        continue;
+                    }
+                    if (symbol == X + T){
+                        or(follow[X], trail);
+                        if (trailNullable && A != X){
+                            if (affected[A]){
+                                edges.add(A, X);
+                            } else{
+                                or(follow[X], follow[A]);
+                            }
+                        }
+                    }
+                    if (nullable[symbol - T]){
+                        or(trail, first[symbol - T]);
+                    } else{
+                        System.arraycopy(first[symbol - T], 0, trail, 0, words);
+                        trailNullable = false;
+                    }
+                }
+            }
+        }
+        propagate(follow, edges.toAdjacency(N), roots);
+
+        for (int X : roots){
+            followChanged[X] = !Arrays.equals(follow[X], old.follow[X]);
+        }
+    }
+
+    /**
+     * 重新计算受影响的产生式的SELECT集：被修改的产生式，右部含有FIRST集变化了的非终结符的产生式，
+     * 以及左部FOLLOW集变化了的产生式；其余的产生式在修改前后一一对应，直接共用原来的结果
+     */
+    private void updateSELECT(GrammarSets old, int changed){
+        int N = nullable.length;
+        for (int p : grammar.productionsOf(changed + T)){
+            selectRecomputed[p] = true;
+        }
+        for (int A=0; A<N; A++){
+            if (firstChanged[A]){
+                for (int p : grammar.occurrencesOf(A + T)){
+                    selectRecomputed[p] = true;
+                }
+            }
+            if (followChanged[A]){
+                for (int p : grammar.productionsOf(A + T)){
+                    selectRecomputed[p] = true;
+                }
+            }
+        }
+
+        for (int A=0; A<N; A++){
+            int[] now = grammar.productionsOf(A + T);
+            int[] before = A == changed ? null : old.grammar.productionsOf(A + T);
+            for (int k=0; k<now.length; k++){
+                int p = now[k];
+                if (selectRecomputed[p]){
+                    calculateSELECT(p);
+                } else{
+                    select[p] = old.select[before[k]];
+                    productionNullable[p] = old.productionNullable[before[k]];
+                }
+            }
+        }
+    }
+
+    /**
+     * 沿着边把集合传播到不动点，sets[u]包含于sets[v]对每条边u->v成立
+     * 一个集合变大之后才把它的后继放回工作表，每次变化至少增加一个终结符，
+     * 所以每个结点最多进入工作表 终结符个数 次
+     */
+    private void propagate(long[][] sets, int[][] successors){
+        propagate(sets, successors, null);
+    }
+
+    // 从initial中的结点开始传播，为null时从所有结点开始
+    private void propagate(long[][] sets, int[][] successors, int[] initial){
+        int n = sets.length;
+        int[] queue = new int[n];
+        boolean[] queued = new boolean[n];
+        int head = 0;
+        int size = initial == null ? n : initial.length;
+        for (int i=0; i<size; i++){
+            int u = initial == null ? i : initial[i];
+            queue[i] = u;
+            queued[u] = true;
+        }
+
+        while (size > 0){
+            int u = queue[head];
+            head = (head + 1) % n;
+            size--;
+            queued[u] = false;
+
+            for (int v : successors[u]){
+                if (or(sets[v], sets[u]) && !queued[v]){
+                    queue[(head + size) % n] = v;
+                    size++;
+                    queued[v] = true;
+                }
+            }
+        }
+    }
+
+    // 把from并入to，返回to是否发生了变化
+    static boolean or(long[] to, long[] from){
+        boolean changed = false;
+        for (int i=0; i<to.length; i++){
+            long merged = to[i] | from[i];
+            if (merged != to[i]){
+                to[i] = merged;
+                changed = true;
+            }
+        }
+        return changed;
+    }
+
+    static void set(long[] bits, int t){
+        bits[t >>> 6] |= 1L << t;
+    }
+
+    static boolean get(long[] bits, int t){
+        return (bits[t >>> 6] & (1L << t)) != 0;
+    }
+
+    // 边表，最后转换为每个结点的后继数组
+    static class EdgeList{
+        private int[] from = new int[16];
+        private int[] to = new int[16];
+        private int size;
+
+        void add(int u, int v){
+            if (size == from.length){
+                from = Arrays.copyOf(from, size * 2);
+                to = Arrays.copyOf(to, size * 2);
+            }
+            from[size] = u;
+            to[size] = v;
+            size++;
+        }
+
+        int[][] toAdjacency(int n){
+            int[] counts = new int[n];
+            for (int i=0; i<size; i++){
+                counts[from[i]]++;
+            }
+            int[][] successors = new int[n][];
+            for (int u=0; u<n; u++){
+                successors[u] = new int[counts[u]];
+                counts[u] = 0;
+            }
+            for (int i=0; i<size; i++){
+                successors[from[i]][counts[from[i]]++] = to[i];
+            }
+            return successors;
+        }
+    }
+
+    public CompiledGrammar getGrammar() {
+        return grammar;
+    }
+
+    // 一个集合占用的long个数
+    public int words(){
+        return words;
+    }
+
+    // 符号能否推导出空串，终结符不能
+    public boolean isNullable(int symbol){
+        return grammar.isNonterminal(symbol) && nullable[symbol - T];
+    }
+
+    public boolean isProductionNullable(int production){
+        return productionNullable[production];
+    }
+
+    // 增量计算后，非终结符的FIRST集或能否推导出空串是否发生了变化
+    public boolean isFirstChanged(int nonterminal){
+        return firstChanged == null || firstChanged[nonterminal - T];
+    }
+
+    // 增量计算后，非终结符的FOLLOW集是否发生了变化
+    public boolean isFollowChanged(int nonterminal){
+        return followChanged == null || followChanged[nonterminal - T];
+    }
+
+    // 增量计算时是否重新计算了产生式的SELECT集
+    public boolean isSelectRecomputed(int production){
+        return selectRecomputed == null || selectRecomputed[production];
+    }
+
+    // 非终结符的FIRST集，不含空串，调用者不能修改返回的数组
+    public long[] first(int nonterminal){
+        return first[nonterminal - T];
+    }
+
+    // 非终结符的FOLLOW集，调用者不能修改返回的数组
+    public long[] follow(int nonterminal){
+        return follow[nonterminal - T];
+    }
+
+    // 产生式的SELECT集，调用者不能修改返回的数组
+    public long[] select(int production){
+        return select[production];
+    }
+
+    // 把位集合转换为终结符名字的集合，按编号顺序
+    public Set<String> names(long[] bits){
+        Set<String> result = new LinkedHashSet<>();
+        for (int t=0; t<T; t++){
+            if (get(bits, t)){
+                result.add(grammar.name(t));
+            }
+        }
+        return result;
+    }
+
+    public static void main(String[] args) {
+        // 左递归并且含有能推导出空串的环，原来的递归算法在这里会栈溢出
+        String[] Vn = {"E", "T", "F", "A", "B"};
+        String[] Vt = {"+", "*", "(", ")", "i", "NULL"};
+        String[] P = {
+                "E->E+T|T",
+                "T->T*F|F",
+                "F->(E)|iA",
+                "A->BA|NULL",
+                "B->AB|*|NULL"
+        };
+        CompiledGrammar g = new Grammar(Vn, Vt, P, "E").getCompiled();
+        GrammarSets sets = new GrammarSets(g);
+
+        for (int x=g.terminalCount(); x<g.symbolCount(); x++){
+            System.out.println(g.name(x) + ": nullable=" + sets.isNullable(x)
+                    + " FIRST=" + sets.names(sets.first(x)) + " FOLLOW=" + sets.names(sets.follow(x)));
+        }
+        for (int p=0; p<g.productionCount(); p++){
+            System.out.println("SELECT(" + g.productionName(p) + ") = " + sets.names(sets.select(p)));
+        }
+    }
+}
@@ -0,0 +1,170 @@
+/**
+ * @Description 增量词法分析，源程序被修改后只重新分析受影响的一段单词
+ * @Author Jianlong
+ * @Date 2026-10-17 下午 17:10
+ */
+public class IncrementalLexicalAnalysis {
+
+    // 一次修改引起的单词变化：原来的[from, oldTo)被替换为现在的[from, newTo)
+    public static class Change{
+        public final int from;
+        public final int oldTo;
+        public final int newTo;
+
+        public Change(int from, int oldTo, int newTo) {
+            this.from = from;
+            this.oldTo = oldTo;
+            this.newTo = newTo;
+        }
+
+        @Override
+        public String toString() {
+            return "Change{" +
+                    "from=" + from +
+                    ", oldTo=" + oldTo +
+                    ", newTo=" + newTo +
+                    '}';
+        }
+    }
+
+    private final DFAScanner scanner;
+
+    public IncrementalLexicalAnalysis(){
+        this(KeywordTable.pl0());
+    }
+
+    public IncrementalLexicalAnalysis(KeywordTable keywords){
+        this.scanner = new DFAScanner(keywords);
+    }
+
+    // 第i个单词是从哪个位置开始扫描的，即前一个单词的结束位置
+    private static int scanPosition(EditableSource source, int i){
+        if (i == 0){
+            return 0;
+        }
+        return source.end(i - 1);
+    }
+
+    /**
+     * 对源程序做一次修改，并更新单词
+     * 单词i的识别依赖于从它的扫描起点到它的结束位置（包括结束位置上那个使DFA停机的字符）之间的字符，
+     * 所以结束位置在修改点之前的单词都不受影响；从第一个受影响的单词开始重新分析，
+     * 直到新的扫描位置越过修改的部分并且与原来某个单词的扫描起点重合，之后的单词只需要平移位置，
+     * 而EditableSource中间隙之后的单词记录的是相对于末尾的位置，平移不需要任何操作。
+     * 所以一次修改的代价只与重新分析的那一段以及与上一次修改的距离有关，与源程序的长度无关
+     * 修改后的源程序不能分析（如注释不匹配）时抛出异常，source和symbols都不变
+     * @param source 源程序和原来的单词
+     * @param symbols 标识符表，可以为null
+     * @param offset 修改的位置
+     * @param removed 删除的字符个数
+     * @param inserted 插入的字符串
+     * @return 单词的变化范围
+     */
+    public Change edit(EditableSource source, SymbolTable symbols, int offset, int removed, String inserted){
+        if (offset < 0 || removed < 0 || offset + removed > source.length()){
+            throw new IllegalArgumentException("修改的范围超出了源程序!");
+        }
+
+        // 二分查找第一个结束位置不在修改点之前的单词
+        int low = 0;
+        int high = source.size();
+        while (low < high){
+            int mid = (low + high) >>> 1;
+            if (source.end(mid) < offset){
+                low = mid + 1;
+            } else{
+                high = mid;
+            }
+        }
+        int first = low;
+        // 从first开始的单词都放到间隙之后，修改源程序时它们随长度平移，之前的单词位置不变
+        source.moveTokenGap(first);
+        if (first == source.size()){
+            // 修改发生在结束标志之后，不影响任何单词
+            source.replace(offset, removed, inserted);
+            return new Change(first, first, first);
+        }
+
+        // 出错时用来恢复源程序
+        String old = source.substring(offset, offset + removed);
+        source.replace(offset, removed, inserted);
+        // 修改后的源程序中，插入部分之后的位置
+        int editEnd = offset + inserted.length();
+
+        TokenBuffer relexed = new TokenBuffer(16);
+        int position = scanPosition(source, first);
+        // 原来的单词中下一个可能重合的扫描起点
+        int k = first;
+        try{
+            while (true){
+                int syn = source.nextToken(scanner, position);
+                relexed.add(syn, scanner.getStart(), scanner.getBegin() - scanner.getStart(), -1);
+                position = scanner.getBegin();
+                if (syn <= 0){
+                    // 一直分析到了结束，后面原来的单词全部被替换
+                    k = source.size();
+                    break;
+                }
+
+                // 越过修改的部分之后，检查是否与原来某个单词的扫描起点重合
+                // 间隙之后的单词已经随修改平移，比较的都是修改后的位置
+                if (position >= editEnd){
+                    while (k < source.size() && scanPosition(source, k) < position){
+                        k++;
+                    }
+                    if (k < source.size() && scanPosition(source, k) == position){
+                        break;
+                    }
+                }
+            }
+        } catch (IllegalArgumentException e){
+            source.replace(offset, inserted.length(), old);
+            throw e;
+        }
+
+        // 分析成功后才替换单词并加入标识符表
+        source.replaceTokens(first, k, relexed, symbols);
+        return new Change(first, k, first + relexed.size());
+    }
+
+    public static void main(String[] args) {
+        char[] text = "var n, f; begin n := 0; f := 1; while n # 10 do begin n := n + 1; f := f * n end end.".toCharArray();
+        TokenBuffer tokens = new TokenBuffer();
+        SymbolTable symbols = new SymbolTable();
+        new DFAScanner().tokenize(text, tokens, symbols);
+        EditableSource source = new EditableSource(tokens);
+
+        IncrementalLexicalAnalysis ila = new IncrementalLexicalAnalysis();
+        // 把第一个n := 0改成count := 10
+        Change change = ila.edit(source, symbols, 16, 6, "count := 10");
+        System.out.println(source);
+        System.out.println(change);
+        for (int i=change.from; i<change.newTo; i++){
+            System.out.println(source.token(i));
+        }
+
+        // 大源程序上逐个字符输入，每次修改的耗时与源程序的长度无关
+        StringBuilder sb = new StringBuilder("var x, y;\nbegin\n");
+        while (sb.length() < 4 * 1024 * 1024){
+            sb.append("  x := x + 1; y := (x * 2) - y; (* 注释 *)\n");
+        }
+        sb.append("end.\n");
+        tokens = new TokenBuffer();
+        new DFAScanner().tokenize(sb.toString().toCharArray(), tokens, symbols);
+        source = new EditableSource(tokens);
+        // 第一次修改要把间隙从末尾移到中间，之后连续输入时间隙只移动很短的距离
+        int offset = source.length() / 2;
+        ila.edit(source, symbols, offset, 0, "\n");
+        String typed = "total := total + 1; ";
+        for (int round=0; round<5; round++){
+            offset++;
+            long begin = System.nanoTime();
+            for (int i=0; i<typed.length(); i++){
+                ila.edit(source, symbols, offset++, 0, typed.substring(i, i + 1));
+            }
+            double micros = (System.nanoTime() - begin) / 1e3 / typed.length();
+            System.out.printf("源程序 %d 个字符, 单词 %d 个, 每次输入一个字符平均耗时 %.1f us%n",
+                    source.length(), source.size(), micros);
+        }
+    }
+}
@@ -0,0 +1,204 @@
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * @Description 保留字表，用完美散列直接判断源程序中的一段字符是不是保留字
+ * @Author Jianlong
+ * @Date 2026-10-17 下午 14:05
+ */
+public class KeywordTable {
+
+    // 标识符的种别码
+    public static final int IDENT = 12;
+
+    // PL/0语言的保留字，种别码依次为1~11
+    private static final String[] PL0_WORDS = {
+            "begin", "end", "if", "then", "while", "do", "const", "var", "call", "procedure", "odd"
+    };
+
+    // 每个槽位上的保留字，空槽为null
+    private final char[][] slots;
+    // 每个槽位上保留字的种别码
+    private final int[] syns;
+    // 散列函数的种子
+    private final int seed;
+    // 保留字的最大长度，更长的一定是标识符
+    private final int maxLength;
+    // 保留字和种别码，按加入的顺序
+    private final Map<String, Integer> words;
+
+    /**
+     * 根据给定的保留字生成散列表
+     * 槽位数从保留字个数开始尝试，找不到无冲突的种子才增加槽位，所以通常是最小完美散列
+     * @param words 保留字
+     * @param syns 对应的种别码
+     */
+    public KeywordTable(String[] words, int[] syns){
+        if (words.length != syns.length){
+            throw new IllegalArgumentException("保留字和种别码的个数不一致!");
+        }
+
+        this.words = new LinkedHashMap<>();
+        int max = 0;
+        for (int i=0; i<words.length; i++){
+            if (this.words.put(words[i], syns[i]) != null){
+                throw new IllegalArgumentException("保留字重复: " + words[i]);
+            }
+            max = Math.max(max, words[i].length());
+        }
+        this.maxLength = max;
+
+        // 依次尝试槽位数和种子，直到没有冲突
+        for (int size = Math.max(words.length, 1); ; size++){
+            for (int s = 1; s <= 4096; s++){
+                int candidate = s * 0x9E3779B1;
+                if (isPerfect(words, size, candidate)){
+                    this.seed = candidate;
+                    this.slots = new char[size][];
+                    this.syns = new int[size];
+                    for (int i=0; i<words.length; i++){
+                        char[] word = words[i].toCharArray();
+                        int slot = slot(word, 0, word.length, candidate, size);
+                        this.slots[slot] = word;
+                        this.syns[slot] = syns[i];
+                    }
+                    return;
+                }
+            }
+        }
+    }
+
+    // PL/0语言默认的保留字表，生成散列表需要搜索种子，所以只生成一次
+    private static final KeywordTable PL0 = createPL0();
+
+    private static KeywordTable createPL0(){
+        int[] syns = new int[PL0_WORDS.length];
+        for (int i=0; i<syns.length; i++){
+            syns[i] = i + 1;
+        }
+        return new KeywordTable(PL0_WORDS, syns);
+    }
+
+    // 散列表生成之后不会再改变，可以共享
+    public static KeywordTable pl0(){
+        return PL0;
+    }
+
+    // 在当前保留字的基础上加入新的保留字，重新生成散列表
+    public KeywordTable extend(String[] words, int[] syns){
+        int n = this.words.size();
+        String[] allWords = Arrays.copyOf(this.words.keySet().toArray(new String[0]), n + words.length);
+        int[] allSyns = new int[n + syns.length];
+        int i = 0;
+        for (int syn : this.words.values()){
+            allSyns[i++] = syn;
+        }
+        System.arraycopy(words, 0, allWords, n, words.length);
+        System.arraycopy(syns, 0, allSyns, n, syns.length);
+        return new KeywordTable(allWords, allSyns);
+    }
+
+    // 检查在给定的槽位数和种子下是否没有冲突
+    private static boolean isPerfect(String[] words, int size, int seed){
+        boolean[] used = new boolean[size];
+        for (String value : words){
+            char[] word = value.toCharArray();
+            int slot = slot(word, 0, word.length, seed, size);
+            if (used[slot]){
+                return false;
+            }
+            used[slot] = true;
+        }
+        return true;
+    }
+
+    // 散列函数，结果映射到[0, size)
+    private static int slot(char[] source, int start, int length, int seed, int size){
+        int h = seed ^ length;
+        for (int i=start; i<start+length; i++){
+            h = (h ^ source[i]) * 0x01000193;
+        }
+        h ^= h >>> 16;
+        // 用乘法代替取模
+        return (int) (((h & 0xFFFFFFFFL) * size) >>> 32);
+    }
+
+    // 字节版本的散列函数，对ASCII字节与字符版本的结果相同
+    private static int slot(ByteBuffer source, int start, int length, int seed, int size){
+        int h = seed ^ length;
+        for (int i=start; i<start+length; i++){
+            h = (h ^ (source.get(i) & 0xFF)) * 0x01000193;
+        }
+        h ^= h >>> 16;
+        return (int) (((h & 0xFFFFFFFFL) * size) >>> 32);
+    }
+
+    /**
+     * 判断source[start, start+length)是不是保留字，不创建字符串
+     * @return 保留字的种别码，不是保留字时返回标识符的种别码12
+     */
+    public int lookup(char[] source, int start, int length){
+        if (length > maxLength){
+            return IDENT;
+        }
+        int slot = slot(source, start, length, seed, slots.length);
+        char[] word = slots[slot];
+        if (word == null || word.length != length){
+            return IDENT;
+        }
+        for (int i=0; i<length; i++){
+            if (word[i] != source[start + i]){
+                return IDENT;
+            }
+        }
+        return syns[slot];
+    }
+
+    // 在字节上判断是不是保留字，用于内存映射的源程序
+    public int lookup(ByteBuffer source, int start, int length){
+        if (length > maxLength){
+            return IDENT;
+        }
+        int slot = slot(source, start, length, seed, slots.length);
+        char[] word = slots[slot];
+        if (word == null || word.length != length){
+            return IDENT;
+        }
+        for (int i=0; i<length; i++){
+            if (word[i] != (source.get(start + i) & 0xFF)){
+                return IDENT;
+            }
+        }
+        return syns[slot];
+    }
+
+    public int lookup(String value){
+        return lookup(value.toCharArray(), 0, value.length());
+    }
+
+    // 保留字和种别码
+    public Map<String, Integer> getWords() {
+        return Collections.unmodifiableMap(words);
+    }
+
+    // 散列表的槽位数
+    public int size(){
+        return slots.length;
+    }
+
+    public static void main(String[] args) {
+        KeywordTable table = KeywordTable.pl0();
+        System.out.println("保留字个数: " + table.getWords().size() + ", 槽位数: " + table.size());
+
+        // 扩展read和write两个保留字
+        KeywordTable extended = table.extend(new String[]{"read", "write"}, new int[]{31, 32});
+        System.out.println("扩展后保留字个数: " + extended.getWords().size() + ", 槽位数: " + extended.size());
+
+        for (String value : new String[]{"begin", "procedure", "write", "read", "x1", "writeln"}){
+            System.out.println(value + ": " + table.lookup(value) + " -> " + extended.lookup(value));
+        }
+    }
+}
@@ -0,0 +1,123 @@
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * @Description LALR1移进-归约分析程序，状态栈是int数组，输入使用词法分析得到的种别码
+ * 对象创建之后不再改变，栈是每次调用自己的，可以被多个线程同时使用
+ * @Author Jianlong
+ * @Date 2026-10-17 下午 23:59
+ */
+public class LALRParser {
+
+    private final LALRTable table;
+    private final CompiledGrammar grammar;
+    // 种别码到终结符编号的映射，与CompiledLL1Parser相同
+    private final TerminalMap terminals;
+
+    public LALRParser(Grammar grammar, Map<Integer, String> terminals){
+        this(new LALRTable(grammar), terminals);
+    }
+
+    /**
+     * @param table 分析表
+     * @param terminals 种别码到终结符的映射，输入结束对应界符#，不需要放在映射中
+     */
+    public LALRParser(LALRTable table, Map<Integer, String> terminals){
+        this.table = table;
+        this.grammar = table.getGrammar();
+        this.terminals = new TerminalMap(grammar, terminals);
+    }
+
+    public LALRTable getTable() {
+        return table;
+    }
+
+    // 种别码对应的终结符编号
+    public int terminal(int syn){
+        return terminals.terminal(syn);
+    }
+
+    /**
+     * 分析词法分析的结果，遇到种别码为-1的单词（输入结束）时结束
+     * 种别码为-1的单词是非法字符时（见TokenBuffer.isEnd）抛出异常
+     * @return 归约的次数
+     */
+    public int parse(TokenBuffer tokens){
+        int[] input = terminals.encode(tokens, new int[tokens.size()]);
+        return parse(input, tokens.size());
+    }
+
+    /**
+     * 分析终结符编号序列，遇到界符时结束，没有界符时在末尾补一个
+     * @return 归约的次数
+     */
+    public int parse(int[] input, int length){
+        int end = grammar.getEnd();
+        int[] stack = new int[64];
+        int top = 0;
+        // 初始状态
+        stack[top++] = 0;
+
+        int i = 0;
+        int c = length > 0 ? input[0] : end;
+        int count = 0;
+
+        while (true){
+            int state = stack[top - 1];
+            int action = table.action(state, c);
+            if (action > 0){
+                // 移进
+                if (top == stack.length){
+                    stack = Arrays.copyOf(stack, top * 2);
+                }
+                stack[top++] = action - 1;
+                i++;
+                c = i < length ? input[i] : end;
+            } else if (action == LALRTable.ACCEPT){
+                return count;
+            } else if (action < 0){
+                // 归约：弹出右部长度个状态，再按GOTO表转移
+                int production = -action - 1;
+                top -= table.reduceLength(production);
+                // 空产生式不弹出状态，压入GOTO状态前同样要检查栈的容量
+                if (top == stack.length){
+                    stack = Arrays.copyOf(stack, top * 2);
+                }
+                stack[top] = table.go(stack[top - 1], table.reduceLhs(production));
+                top++;
+                count++;
+            } else{
+                throw new IllegalArgumentException("ERROR:分析出错! 第" + i + "个单词 " + grammar.name(c)
+                        + " 处状态为 " + state);
+            }
+        }
+    }
+
+    public static void main(String[] args) {
+        // 左递归的表达式文法，不需要消除左递归
+        LALRParser parser = new LALRParser(ParserBenchmark.leftRecursiveGrammar(), ParserBenchmark.expressionTerminals());
+        System.out.println("状态数: " + parser.getTable().stateCount());
+
+        String[] sources = {"a + b * (c - 1)", "x * (y + 2", "(1 + 2) * 3 / n", "a + * b"};
+        for (String source : sources){
+            TokenBuffer tokens = new TokenBuffer();
+            new DFAScanner().tokenize(source.toCharArray(), tokens);
+            try{
+                System.out.println(source + " : 归约 " + parser.parse(tokens) + " 次");
+            } catch (IllegalArgumentException e){
+                System.out.println(source + " : " + e.getMessage());
+            }
+        }
+
+        // 右递归加空产生式：归约 L -> NULL 时栈正好满，检查压入GOTO状态前的扩容
+        LALRParser right = new LALRParser(new Grammar(new String[]{"L"}, new String[]{"a", "NULL"},
+                new String[]{"L->aL|NULL"}, "L"), new HashMap<>());
+        int a = right.getTable().getGrammar().id("a");
+        for (int n=62; n<=64; n++){
+            int[] input = new int[n];
+            Arrays.fill(input, a);
+            System.out.println(n + " 个a : 归约 " + right.parse(input, n) + " 次");
+        }
+    }
+}
@@ -0,0 +1,492 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * @Description LALR1分析表的构造
+ * 先构造LR0项目集规范族，再用传播的方法求每个核心项目的向前看符号（龙书算法4.62），
+ * 最后得到int数组形式的ACTION表和GOTO表。左递归的文法不需要改写
+ * 项目用一个int表示：产生式p的第一个项目的编号加上点的位置
+ * @Author Jianlong
+ * @Date 2026-10-17 下午 23:58
+ */
+public class LALRTable {
+
+    // ACTION表中的出错项
+    public static final int ERROR = 0;
+    // 接受
+    public static final int ACCEPT = Integer.MIN_VALUE;
+
+    private final CompiledGrammar grammar;
+    private final GrammarSets sets;
+    // 终结符个数
+    private final int T;
+    // 非终结符个数
+    private final int N;
+    // 增广产生式 S'->S 的编号，排在文法的产生式之后
+    private final int augmented;
+
+    // 产生式的右部，包括增广产生式
+    private final int[][] rhs;
+    // 每个产生式第一个项目的编号
+    private final int[] itemBase;
+    // 项目所属的产生式和点的位置
+    private final int[] itemProduction;
+    private final int[] itemDot;
+
+    // 每个状态的核心项目，从小到大排列
+    private final List<int[]> kernels = new ArrayList<>();
+    // 状态之间的转移，下标为 [状态][符号]，没有转移时为-1
+    private final List<int[]> transitions = new ArrayList<>();
+
+    // 状态个数
+    private final int states;
+    // ACTION表，下标为 状态*T+终结符；大于0时移进到状态 action-1，小于0时用产生式 -action-1 归约
+    private final int[] action;
+    // GOTO表，下标为 状态*N+非终结符编号-T，没有时为-1
+    private final int[] goTo;
+    // 归约时弹出的状态个数和归约得到的非终结符
+    private final int[] reduceLength;
+    private final int[] reduceLhs;
+
+    // 核心项目集，作为HashMap的键
+    private static final class Kernel{
+        final int[] items;
+
+        Kernel(int[] items) {
+            this.items = items;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Kernel && Arrays.equals(items, ((Kernel) o).items);
+        }
+
+        @Override
+        public int hashCode() {
+            return Arrays.hashCode(items);
+        }
+    }
+
+    public LALRTable(Grammar grammar){
+        this(new GrammarSets(grammar.getCompiled()));
+    }
+
+    /**
+     * 构造LALR1分析表，有移进-归约或归约-归约冲突时抛出异常
+     * @param sets 文法的FIRST集和能否推导出空串，用于求向前看符号
+     */
+    public LALRTable(GrammarSets sets){
+        this.sets = sets;
+        this.grammar = sets.getGrammar();
+        this.T = grammar.terminalCount();
+        this.N = grammar.nonterminalCount();
+        this.augmented = grammar.productionCount();
+
+        // 给所有项目编号
+        this.rhs = new int[augmented + 1][];
+        this.itemBase = new int[augmented + 1];
+        int items = 0;
+        for (int p=0; p<=augmented; p++){
+            rhs[p] = p == augmented ? new int[]{grammar.getStart()} : grammar.rhs(p);
+            itemBase[p] = items;
+            items += rhs[p].length + 1;
+        }
+        this.itemProduction = new int[items];
+        this.itemDot = new int[items];
+        for (int p=0; p<=augmented; p++){
+            for (int dot=0; dot<=rhs[p].length; dot++){
+                itemProduction[itemBase[p] + dot] = p;
+                itemDot[itemBase[p] + dot] = dot;
+            }
+        }
+
+        buildLR0();
+        this.states = kernels.size();
+        long[][][] lookaheads = propagateLookaheads();
+
+        this.action = new int[states * T];
+        this.goTo = new int[states * N];
+        Arrays.fill(goTo, -1);
+        this.reduceLength = new int[augmented];
+        this.reduceLhs = new int[augmented];
+        for (int p=0; p<augmented; p++){
+            reduceLength[p] = rhs[p].length;
+            reduceLhs[p] = grammar.lhs(p);
+        }
+        fillTables(lookaheads);
+    }
+
+    // 下一个符号，点在最后时返回-1
+    private int symbolAfterDot(int item){
+        int[] right = rhs[itemProduction[item]];
+        int dot = itemDot[item];
+        return dot < right.length ? right[dot] : -1;
+    }
+
+    // 构造LR0项目集规范族和状态转移
+    private void buildLR0(){
+        Map<Kernel, Integer> index = new HashMap<>();
+        int[] start = {itemBase[augmented]};
+        kernels.add(start);
+        index.put(new Kernel(start), 0);
+
+        int symbols = grammar.symbolCount();
+        // 按转移符号收集点后移之后的项目
+        int[][] advanced = new int[symbols][];
+        int[] count = new int[symbols];
+
+        for (int s=0; s<kernels.size(); s++){
+            int[] closure = closure0(kernels.get(s));
+            Arrays.fill(count, 0);
+            for (int item : closure){
+                int X = symbolAfterDot(item);
+                if (X < 0){
+                    continue;
+                }
+                if (advanced[X] == null || advanced[X].length == count[X]){
+                    advanced[X] = advanced[X] == null ? new int[4] : Arrays.copyOf(advanced[X], count[X] * 2);
+                }
+                advanced[X][count[X]++] = item + 1;
+            }
+
+            int[] next = new int[symbols];
+            Arrays.fill(next, -1);
+            for (int X=0; X<symbols; X++){
+                if (count[X] == 0){
+                    continue;
+                }
+                int[] kernel = Arrays.copyOf(advanced[X], count[X]);
+                Arrays.sort(kernel);
+                Kernel key = new Kernel(kernel);
+                Integer target = index.get(key);
+                if (target == null){
+                    target = kernels.size();
+                    kernels.add(kernel);
+                    index.put(key, target);
+                }
+                next[X] = target;
+            }
+            transitions.add(next);
+        }
+    }
+
+    // LR0闭包，每个非终结符的产生式只加入一次
+    private int[] closure0(int[] kernel){
+        boolean[] added = new boolean[N];
+        int[] result = Arrays.copyOf(kernel, Math.max(16, kernel.length * 2));
+        int size = kernel.length;
+        for (int i=0; i<size; i++){
+            int B = symbolAfterDot(result[i]);
+            if (B < 0 || !grammar.isNonterminal(B) || added[B - T]){
+                continue;
+            }
+            added[B - T] = true;
+            for (int q : grammar.productionsOf(B)){
+                if (size == result.length){
+                    result = Arrays.copyOf(result, size * 2);
+                }
+                result[size++] = itemBase[q];
+            }
+        }
+        return Arrays.copyOf(result, size);
+    }
+
+    /**
+     * LR1闭包：[A->α.Bβ, L] 加入 [B->.γ, FIRST(β) ∪ (β能推导出空串时的L)]，直到不再变化
+     * @param items 项目，结果也加在这里
+     * @param lookaheads 项目对应的向前看符号集，与items一一对应
+     * @return 项目个数
+     */
+    private int closure1(int[] items, long[][] lookaheads, int size, int[] position){
+        // position[item]是项目在items中的下标，不在闭包中时为-1，返回前恢复
+        for (int i=0; i<size; i++){
+            position[items[i]] = i;
+        }
+        int laWords = lookaheads[0].length;
+        // 循环队列，每个项目最多在队列中出现一次，所以不会溢出
+        boolean[] queued = new boolean[items.length];
+        int[] queue = new int[items.length];
+        int head = 0;
+        int pending = 0;
+        for (int i=0; i<size; i++){
+            queue[pending++] = i;
+            queued[i] = true;
+        }
+
+        long[] first = new long[laWords];
+        while (pending > 0){
+            int i = queue[head];
+            head = (head + 1) % queue.length;
+            pending--;
+            queued[i] = false;
+
+            int item = items[i];
+            int B = symbolAfterDot(item);
+            if (B < 0 || !grammar.isNonterminal(B)){
+                continue;
+            }
+            // FIRST(β)，β能推导出空串时再加上L
+            Arrays.fill(first, 0);
+            int[] right = rhs[itemProduction[item]];
+            boolean nullable = true;
+            for (int k=itemDot[item]+1; k<right.length && nullable; k++){
+                int Y = right[k];
+                if (grammar.isTerminal(Y)){
+                    GrammarSets.set(first, Y);
+                    nullable = false;
+                } else{
+                    long[] f = sets.first(Y);
+                    for (int w=0; w<f.length; w++){
+                        first[w] |= f[w];
+                    }
+                    nullable = sets.isNullable(Y);
+                }
+            }
+            if (nullable){
+                GrammarSets.or(first, lookaheads[i]);
+            }
+
+            for (int q : grammar.productionsOf(B)){
+                int child = itemBase[q];
+                int j = position[child];
+                boolean changed;
+                if (j < 0){
+                    j = size++;
+                    items[j] = child;
+                    lookaheads[j] = first.clone();
+                    position[child] = j;
+                    changed = true;
+                } else{
+                    changed = GrammarSets.or(lookaheads[j], first);
+                }
+                if (changed && !queued[j]){
+                    queue[(head + pending++) % queue.length] = j;
+                    queued[j] = true;
+                }
+            }
+        }
+
+        for (int i=0; i<size; i++){
+            position[items[i]] = -1;
+        }
+        return size;
+    }
+
+    // 求每个核心项目的向前看符号：先找出自生的符号和传播关系，再沿传播关系传递直到不再变化
+    private long[][][] propagateLookaheads(){
+        // 多用一位表示传播标记#
+        int dummy = T;
+        int laWords = (T + 1 + 63) >>> 6;
+
+        // 核心项目的全局编号
+        int[] kernelBase = new int[states + 1];
+        for (int s=0; s<states; s++){
+            kernelBase[s + 1] = kernelBase[s] + kernels.get(s).length;
+        }
+        long[][][] lookaheads = new long[states][][];
+        for (int s=0; s<states; s++){
+            lookaheads[s] = new long[kernels.get(s).length][laWords];
+        }
+        // 增广产生式的向前看符号是界符
+        GrammarSets.set(lookaheads[0][0], grammar.getEnd());
+
+        int[] position = new int[itemProduction.length];
+        Arrays.fill(position, -1);
+        int[] items = new int[itemProduction.length];
+        long[][] closure = new long[itemProduction.length][];
+        GrammarSets.EdgeList propagation = new GrammarSets.EdgeList();
+
+        for (int s=0; s<states; s++){
+            int[] kernel = kernels.get(s);
+            for (int k=0; k<kernel.length; k++){
+                // 以 [核心项目, #] 求闭包
+                items[0] = kernel[k];
+                closure[0] = new long[laWords];
+                GrammarSets.set(closure[0], dummy);
+                int size = closure1(items, closure, 1, position);
+
+                for (int i=0; i<size; i++){
+                    int X = symbolAfterDot(items[i]);
+                    if (X < 0){
+                        continue;
+                    }
+                    int target = transitions.get(s)[X];
+                    int targetIndex = Arrays.binarySearch(kernels.get(target), items[i] + 1);
+                    long[] la = closure[i];
+                    if (GrammarSets.get(la, dummy)){
+                        propagation.add(kernelBase[s] + k, kernelBase[target] + targetIndex);
+                    }
+                    // 自生的向前看符号
+                    long[] to = lookaheads[target][targetIndex];
+                    for (int w=0; w<laWords; w++){
+                        to[w] |= la[w];
+                    }
+                    to[dummy >>> 6] &= ~(1L << dummy);
+                }
+            }
+        }
+
+        // 沿传播关系传递
+        int total = kernelBase[states];
+        long[][] flat = new long[total][];
+        for (int s=0; s<states; s++){
+            for (int k=0; k<kernels.get(s).length; k++){
+                flat[kernelBase[s] + k] = lookaheads[s][k];
+            }
+        }
+        int[][] successors = propagation.toAdjacency(total);
+        boolean[] queued = new boolean[total];
+        int[] queue = new int[total];
+        int head = 0;
+        int pending = 0;
+        for (int u=0; u<total; u++){
+            queue[pending++] = u;
+            queued[u] = true;
+        }
+        while (pending > 0){
+            int u = queue[head];
+            head = (head + 1) % total;
+            pending--;
+            queued[u] = false;
+            for (int v : successors[u]){
+                if (GrammarSets.or(flat[v], flat[u]) && !queued[v]){
+                    queue[(head + pending++) % total] = v;
+                    queued[v] = true;
+                }
+            }
+        }
+        return lookaheads;
+    }
+
+    // 填写ACTION表和GOTO表，同时检查冲突
+    private void fillTables(long[][][] lookaheads){
+        int[] position = new int[itemProduction.length];
+        Arrays.fill(position, -1);
+        int[] items = new int[itemProduction.length];
+        long[][] closure = new long[itemProduction.length][];
+        List<String> conflicts = new ArrayList<>();
+
+        for (int s=0; s<states; s++){
+            int[] next = transitions.get(s);
+            for (int X=0; X<grammar.symbolCount(); X++){
+                if (next[X] < 0){
+                    continue;
+                }
+                if (grammar.isTerminal(X)){
+                    action[s * T + X] = next[X] + 1;
+                } else{
+                    goTo[s * N + X - T] = next[X];
+                }
+            }
+
+            // 带向前看符号的闭包中点在最后的项目
+            int[] kernel = kernels.get(s);
+            for (int k=0; k<kernel.length; k++){
+                items[k] = kernel[k];
+                closure[k] = lookaheads[s][k].clone();
+            }
+            int size = closure1(items, closure, kernel.length, position);
+            for (int i=0; i<size; i++){
+                if (symbolAfterDot(items[i]) >= 0){
+                    continue;
+                }
+                int p = itemProduction[items[i]];
+                for (int t=0; t<T; t++){
+                    if (!GrammarSets.get(closure[i], t)){
+                        continue;
+                    }
+                    int value = p == augmented ? ACCEPT : -(p + 1);
+                    int old = action[s * T + t];
+                    if (old != ERROR && old != value){
+                        conflicts.add("状态" + s + " 遇到 " + grammar.name(t) + ": " + describe(old) + " 与 " + describe(value));
+                    } else{
+                        action[s * T + t] = value;
+                    }
+                }
+            }
+        }
+
+        if (!conflicts.isEmpty()){
+            throw new IllegalArgumentException("ERROR:输入的文法不是LALR1文法! " + String.join("; ", conflicts));
+        }
+    }
+
+    // 表项的文字形式
+    private String describe(int value){
+        if (value == ACCEPT){
+            return "接受";
+        }
+        if (value > 0){
+            return "移进" + (value - 1);
+        }
+        return "用 " + grammar.productionName(-value - 1) + " 归约";
+    }
+
+    public CompiledGrammar getGrammar() {
+        return grammar;
+    }
+
+    public int stateCount(){
+        return states;
+    }
+
+    // 状态遇到终结符时的动作：ERROR、ACCEPT、移进（大于0）或归约（小于0）
+    public int action(int state, int terminal){
+        return action[state * T + terminal];
+    }
+
+    // 归约得到非终结符之后转移到的状态，没有时为-1
+    public int go(int state, int nonterminal){
+        return goTo[state * N + nonterminal - T];
+    }
+
+    // 用产生式p归约时弹出的状态个数
+    public int reduceLength(int production){
+        return reduceLength[production];
+    }
+
+    public int reduceLhs(int production){
+        return reduceLhs[production];
+    }
+
+    // 打印ACTION表和GOTO表
+    public void printTable(){
+        System.out.print("状态");
+        for (int X=0; X<grammar.symbolCount(); X++){
+            System.out.printf("%-6s", grammar.name(X));
+        }
+        System.out.println();
+        for (int s=0; s<states; s++){
+            System.out.printf("%-4d", s);
+            for (int t=0; t<T; t++){
+                int a = action(s, t);
+                String text = a == ERROR ? "" : a == ACCEPT ? "acc" : a > 0 ? "s" + (a - 1) : "r" + (-a - 1);
+                System.out.printf("%-6s", text);
+            }
+            for (int A=T; A<grammar.symbolCount(); A++){
+                int g = go(s, A);
+                System.out.printf("%-6s", g < 0 ? "" : String.valueOf(g));
+            }
+            System.out.println();
+        }
+        for (int p=0; p<augmented; p++){
+            System.out.println("r" + p + ": " + grammar.productionName(p));
+        }
+    }
+
+    public static void main(String[] args) {
+        String[] Vn = {"E", "T", "F"};
+        String[] Vt = {"+", "*", "(", ")", "i"};
+        String[] P = {
+                "E->E+T|T",
+                "T->T*F|F",
+                "F->(E)|i"
+        };
+        Grammar grammar = new Grammar(Vn, Vt, P, "E");
+        grammar.printGrammar();
+        new LALRTable(grammar).printTable();
+    }
+}
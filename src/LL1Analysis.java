@@ -16,8 +16,8 @@ public class LL1Analysis {
     // SELECT集合
     private Map<String, Set<String>> SELECT;
 
-    // 存储在查找FOLLOW集合时非终结符的状态
-    private Map<String, Integer> status;
+    // 位集合形式的FIRST、FOLLOW和SELECT集
+    private GrammarSets sets;
 
     public LL1Analysis(){
 
@@ -44,15 +44,15 @@ public class LL1Analysis {
         analysis();
     }
 
+    // 只做分析，不输出，需要时调用grammar.printGrammar()打印文法
     public LL1Analysis(Grammar grammar){
         this.grammar = grammar;
-        // 打印出文法
-        grammar.printGrammar();
         analysis();
     }
 
     // 预处理
     private void analysis(){
+        sets = new GrammarSets(grammar.getCompiled());
         calculateFIRST();
         calculateFOLLOW();
         calculateSELECT();
@@ -70,311 +70,156 @@ public class LL1Analysis {
             FIRST.put(value, first);
         }
 
-        // 对于每个非终结符
-        for (String value : grammar.getNonEndChars()){
-            FIRST.put(value, FIRSTx(value));
-        }
-
-    }
-
-    // 递归地计算某符号的FIRST
-    private Set<String> FIRSTx(String x){
-
-        Set<String> first = new HashSet<>();
-
-        // 如果x是终结符，FIRST集就是它本身
-        // 这里，空串也包含在终结符号里
-        if (grammar.getEndChars().contains(x)){
-            first.add(x);
-            return first;
-        } else {
-            // 否则，就等于其右部各个符号的FIRST集相加
-            String[] rightItems = grammar.getP().get(x);
-            // 遍历每一个右部
-            for (String value : rightItems){
-                List<String> cList = grammar.disassemble(value);
-
-                // 如果右部的产生式是单个符号的，就直接加入到first集合
-                if (cList.size() == 1){
-                    first.addAll(FIRSTx(cList.get(0)));
-                } else {
-                    // 如果右部是多个符号，就看串首符号
-                    for (int i=0; i<cList.size(); i++){
-                        String character = cList.get(i);
-                        // 如果是终结符，直接把它加入first集合
-                        if (grammar.getEndChars().contains(character)){
-                            first.add(character);
-                            break;
-                        } else {
-                            // 如果是非终结符，就计算它的FIRST集
-                            Set<String> cFirst = FIRSTx(character);
-                            // 如果包含有空串，就要继续计算后一个符号的FIRST集
-                            if (cFirst.contains("NULL")){
-                                // 如果此时是最后一个符号了
-                                // 就要把空串页加入进first集合
-                                if (i == cList.size() - 1){
-                                    first.addAll(cFirst);
-                                } else {
-                                    cFirst.remove("NULL");
-                                    first.addAll(cFirst);
-                                }
-                            } else {
-                                // 如果不包含空串，就不需要继续计算了
-                                first.addAll(cFirst);
-                                break;
-                            }
-                        }
-                    }
-                }
+        // 非终结符的FIRST集合由位集合转换而来，能推导出空串时加入NULL
+        CompiledGrammar g = grammar.getCompiled();
+        for (int x=g.terminalCount(); x<g.symbolCount(); x++){
+            Set<String> first = new HashSet<>(sets.names(sets.first(x)));
+            if (sets.isNullable(x)){
+                first.add("NULL");
             }
-            return first;
+            FIRST.put(g.name(x), first);
         }
+
     }
 
     private Map<String, Set<String>> getFIRST(){
         return this.FIRST;
     }
 
-    // 将某个符号加入到某个非终结符的FOLLOW集合中
-    private void addCharToFOLLOW(String character, String nonEndChar){
-        Set<String> nonEndCharFollow = FOLLOW.get(nonEndChar);
-        // 加入前先判断有没有在映射中了
-        if (nonEndCharFollow != null){
-            nonEndCharFollow.add(character);
-        } else{
-            nonEndCharFollow = new HashSet<>();
-            nonEndCharFollow.add(character);
-            FOLLOW.put(nonEndChar, nonEndCharFollow);
-        }
-    }
-
-    // 将某个符号集加入到某个非终结符的FOLLOW集合中
-    private void addCharsToFOLLOW(Set<String> characterSet, String nonEndChar){
-        Set<String> nonEndCharFollow = FOLLOW.get(nonEndChar);
-        // 加入前先判断有没有在映射中了
-        if (nonEndCharFollow != null){
-            nonEndCharFollow.addAll(characterSet);
-        } else{
-            nonEndCharFollow = new HashSet<>();
-            nonEndCharFollow.addAll(characterSet);
-            FOLLOW.put(nonEndChar, nonEndCharFollow);
-        }
-    }
-
     // 计算FOLLOW集合
     private void calculateFOLLOW(){
 
-        status = new HashMap<>();
-
         FOLLOW = new HashMap<>();
 
-        for (String character : grammar.getNonEndChars()) {
-
-            // 初始化非终结符的状态
-            // 状态1表示还没找过
-            // 状态2表示正在查找
-            // 状态3表示已经结束查找
-            status.put(character, 1);
-            FOLLOW.put(character, new HashSet<>());
+        CompiledGrammar g = grammar.getCompiled();
+        for (int x=g.terminalCount(); x<g.symbolCount(); x++){
+            FOLLOW.put(g.name(x), new HashSet<>(sets.names(sets.follow(x))));
         }
+    }
 
-        // 首先在开始符号的FOLLOW集中加入界符
-        Set<String> startFollow = new HashSet<>();
-        startFollow.add("#");
-        FOLLOW.put(grammar.getStart(), startFollow);
+    public Map<String, Set<String>> getFOLLOW(){
+        return FOLLOW;
+    }
 
-        for (String character : grammar.getNonEndChars()){
-            // 如果已经查找完，就跳过
-            if (status.get(character) == 3){
-                continue;
-            }
+    // 计算SELECT集
+    private void calculateSELECT(){
 
-            FOLLOWx(character);
+        SELECT = new HashMap<>();
+
+        CompiledGrammar g = grammar.getCompiled();
+        for (int p=0; p<g.productionCount(); p++){
+            SELECT.put(g.productionName(p), new HashSet<>(sets.names(sets.select(p))));
         }
     }
 
-    // 递归地计算非终结符的FOLLOW集合
-    private Set<String> FOLLOWx(String x){
-        // 首先置当前查找的非终结符的状态为正在查找
-        status.put(x, 2);
-
-        // 在产生式中搜索所有非终结符出现的位置
-        for (String character : grammar.getNonEndChars()){
-            String[] rightItems = grammar.getP().get(character);
-
-            RightItemLoop:for (String item : rightItems){
-                // 获取符号列表
-                List<String> cList = grammar.disassemble(item);
-
-                // 接下来，搜索当前查找的非终结符的位置
-                for (int i=0; i<cList.size(); i++){
-                    String nonEndChar = cList.get(i);
-                    if (nonEndChar.equals(x)){
-                        // 判断是否处于最右的位置
-                        if (i < cList.size() - 1){
-                            // 如果没在最右边的位置
-                            // 下面循环判断后一个符号是否是非终结符
-                            for (int j=i+1; j<cList.size(); j++){
-                                String nextChar = cList.get(j);
-                                if (grammar.getNonEndChars().contains(nextChar)){
-                                    // 如果是非终结符，查看其FIRST集是否包含空串
-                                    Set<String> nextFirst = FIRST.get(nextChar);
-                                    // 如果包含空串，并且此时这个符号是最后一个符号
-                                    // 就要将其FIRST除去空串的集合加入FOLLOW集，且左部的FOLLOW集加入FOLLOW集
-                                    if (nextFirst.contains("NULL")){
-                                        // 判断是否是最后一个符号
-                                        if (j == cList.size() - 1){
-                                            // 这里首先判断一下要递归查找的非终结符的状态
-                                            // 如果为正在查找，就会陷入死循环
-                                            // 所以要略过这一条产生式
-                                            // 在略过产生式之前，因为直接略过会遗漏掉之前正在查找的非终结符的FOLLOW集中的元素，所以要加上
-                                            if (status.get(character) == 2){
-                                                Set<String> follow = FOLLOW.get(character);
-                                                if (follow.size() != 0){
-                                                    addCharsToFOLLOW(follow, x);
-                                                }
-                                                continue RightItemLoop;
-                                            }
-                                            Set<String> leftFOLLOW = FOLLOWx(character);
-                                            Set<String> nextFirstExceptNULL = new HashSet<>(nextFirst);
-                                            nextFirstExceptNULL.remove("NULL");
-                                            addCharsToFOLLOW(leftFOLLOW, x);
-                                            addCharsToFOLLOW(nextFirstExceptNULL, x);
-                                        } else{
-                                            // 如果不是最后一个符号，将FIRST集合加入
-                                            Set<String> nextFirstExceptNULL = new HashSet<>(nextFirst);
-                                            nextFirstExceptNULL.remove("NULL");
-                                            addCharsToFOLLOW(nextFirstExceptNULL, x);
-                                        }
-                                    } else{
-                                        // 如果不包含空串加入FIRST之后跳出循环
-                                        addCharsToFOLLOW(nextFirst, x);
-                                        break;
-                                    }
-                                } else{
-                                    // 如果不是非终结符，把此符号加入到当前查找的非终结符的FOLLOW集中
-                                    addCharToFOLLOW(nextChar, nonEndChar);
-                                    break;
-                                }
-                            }
-                        }
-                        // 如果在最右边，将FOLLOW（左部）加入到当前非终结符的FOLLOW集合
-                        else{
-                            // 这里首先判断一下要递归查找的非终结符的状态
-                            // 如果为正在查找，就会陷入死循环
-                            // 所以要略过这一条产生式
-                            // 在略过产生式之前，因为直接略过会遗漏掉之前正在查找的非终结符的FOLLOW集中的元素，所以要加上
-                            if (status.get(character) == 2){
-                                Set<String> follow = FOLLOW.get(character);
-                                if (follow.size() != 0){
-                                    addCharsToFOLLOW(follow, x);
-                                }
-                                continue RightItemLoop;
-                            }
-                            Set<String> leftFOLLOW = FOLLOWx(character);
-                            addCharsToFOLLOW(leftFOLLOW, x);
-                        }
-                    }
-                }
-            }
+    public Map<String, Set<String>> getSELECT(){
+        return SELECT;
+    }
+
+    public GrammarSets getSets(){
+        return sets;
+    }
+
+    // 一次修改产生式引起的变化，记录变化后的FIRST、FOLLOW和SELECT集
+    public static class Changes{
+        public final Map<String, Set<String>> FIRST = new LinkedHashMap<>();
+        public final Map<String, Set<String>> FOLLOW = new LinkedHashMap<>();
+        public final Map<String, Set<String>> SELECT = new LinkedHashMap<>();
+        // 被删除的产生式
+        public final Set<String> removedSELECT = new LinkedHashSet<>();
+
+        public boolean isEmpty(){
+            return FIRST.isEmpty() && FOLLOW.isEmpty() && SELECT.isEmpty() && removedSELECT.isEmpty();
         }
 
-        // 如果return，说明已经查找完
-        status.put(x, 3);
-        return FOLLOW.get(x);
+        @Override
+        public String toString() {
+            return "Changes{" +
+                    "FIRST=" + FIRST +
+                    ", FOLLOW=" + FOLLOW +
+                    ", SELECT=" + SELECT +
+                    ", removedSELECT=" + removedSELECT +
+                    '}';
+        }
     }
 
-    public Map<String, Set<String>> getFOLLOW(){
-        return FOLLOW;
+    // 增加产生式 left->right，只重新计算受影响的部分
+    public Changes addProduction(String left, String right){
+        grammar.addProduction(left, right);
+        return update(left);
     }
 
-    // 计算SELECT集
-    private void calculateSELECT(){
+    // 删除产生式 left->right
+    public Changes removeProduction(String left, String right){
+        grammar.removeProduction(left, right);
+        return update(left);
+    }
 
-        // 为true的话，说明右部可以推导出空串
-        boolean situation;
-        SELECT = new HashMap<>();
+    // 把产生式 left->oldRight 替换为 left->newRight
+    public Changes replaceProduction(String left, String oldRight, String newRight){
+        grammar.replaceProduction(left, oldRight, newRight);
+        return update(left);
+    }
 
-        // 遍历产生式
-        for (Map.Entry<String, String[]> entry : grammar.getP().entrySet()){
-            String leftItem = entry.getKey();
-            String[] rightItems = entry.getValue();
-
-            // 遍历右部
-            for (String item : rightItems){
-                situation = false;
-                // 分解串为符号
-                List<String> characters = grammar.disassemble(item);
-
-                Set<String> first = new HashSet<>();
-
-                // 计算串的FIRST集
-                for (int i=0; i<characters.size(); i++){
-                    String character = characters.get(i);
-                    Set<String> currentFIRST = FIRST.get(character);
-                    if (currentFIRST.contains("NULL")){
-                        // 如果最后一个符号也能推导出空串，说明右部可以推导出空串
-                        if (i == characters.size()-1){
-                            situation = true;
-                            first.addAll(FIRST.get(character));
-                            first.remove("NULL");
-                        } else{
-                            first.addAll(FIRST.get(character));
-                            first.remove("NULL");
-                        }
-                    } else{
-                        first.addAll(FIRST.get(character));
-                        break;
-                    }
+    // 在原来结果的基础上增量计算，并把变化了的集合更新到各个映射中
+    private Changes update(String left){
+        GrammarSets old = sets;
+        CompiledGrammar g = grammar.getCompiled();
+        sets = new GrammarSets(old, g, g.id(left));
+        Changes changes = new Changes();
+
+        for (int x=g.terminalCount(); x<g.symbolCount(); x++){
+            if (sets.isFirstChanged(x)){
+                Set<String> first = new HashSet<>(sets.names(sets.first(x)));
+                if (sets.isNullable(x)){
+                    first.add("NULL");
                 }
+                FIRST.put(g.name(x), first);
+                changes.FIRST.put(g.name(x), first);
+            }
+            if (sets.isFollowChanged(x)){
+                Set<String> follow = new HashSet<>(sets.names(sets.follow(x)));
+                FOLLOW.put(g.name(x), follow);
+                changes.FOLLOW.put(g.name(x), follow);
+            }
+        }
 
-                String p = leftItem + " -> " + item;
+        // 被删除的产生式
+        CompiledGrammar before = old.getGrammar();
+        Set<String> current = new HashSet<>();
+        for (int p : g.productionsOf(g.id(left))){
+            current.add(g.productionName(p));
+        }
+        for (int p : before.productionsOf(before.id(left))){
+            String name = before.productionName(p);
+            if (!current.contains(name)){
+                SELECT.remove(name);
+                changes.removedSELECT.add(name);
+            }
+        }
 
-                if (situation){
-                    Set<String> follow = FOLLOW.get(leftItem);
-                    first.addAll(follow);
-                    SELECT.put(p, first);
-                } else{
-                    SELECT.put(p, first);
+        for (int p=0; p<g.productionCount(); p++){
+            if (sets.isSelectRecomputed(p)){
+                String name = g.productionName(p);
+                Set<String> select = new HashSet<>(sets.names(sets.select(p)));
+                if (!select.equals(SELECT.get(name))){
+                    SELECT.put(name, select);
+                    changes.SELECT.put(name, select);
                 }
             }
         }
+
+        return changes;
     }
 
-    public Map<String, Set<String>> getSELECT(){
-        return SELECT;
+    // 找出所有的LL1冲突
+    public List<LL1ConflictChecker.Conflict> getConflicts(){
+        return LL1ConflictChecker.check(sets);
     }
 
-    // 判断是否是LL1文法
+    // 判断是否是LL1文法：同一个非终结符的各个候选式的SELECT集两两不相交
     public boolean isLL1(){
-
-        boolean isIntersect = false;
-
-        outer:for (String P1 : SELECT.keySet()){
-
-            String left1 = P1.split("->")[0].trim();
-            Set<String> set1 = new HashSet<>(SELECT.get(P1));
-            Set<String> leftKeySet = new HashSet<>(SELECT.keySet());
-            leftKeySet.remove(P1);
-
-            for (String P2 : leftKeySet){
-                String left2 = P2.split("->")[0].trim();
-                // 如果两条产生式的左部相等的话
-                if (left1.equals(left2)){
-                    Set<String> set2 = SELECT.get(P2);
-                    // 判断是否相交
-                    if (set1.retainAll(set2)){
-                        isIntersect = true;
-                        break outer;
-                    }
-                    else{
-                        set1 = SELECT.get(P1);
-                    }
-                }
-            }
-        }
-
-        return isIntersect;
+        return getConflicts().isEmpty();
     }
 
     public static void main(String[] args) {
@@ -415,6 +260,7 @@ public class LL1Analysis {
 //        };
 
         Grammar grammar = new Grammar(Vn, Vt, P, S);
+        grammar.printGrammar();
 
         LL1Analysis myLL1 = new LL1Analysis(grammar);
 
@@ -457,5 +303,14 @@ public class LL1Analysis {
 
         System.out.println();
         System.out.println("该文法是LL1文法吗？ " + myLL1.isLL1());
+
+        // 修改文法，只重新计算受影响的集合
+        System.out.println();
+        System.out.println("增加产生式 A->bA 之后的变化: ");
+        System.out.println(myLL1.addProduction("A", "bA"));
+        System.out.println("该文法是LL1文法吗？ " + myLL1.isLL1());
+        for (LL1ConflictChecker.Conflict conflict : myLL1.getConflicts()){
+            System.out.println(conflict);
+        }
     }
 }
\ No newline at end of file
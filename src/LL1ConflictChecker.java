@@ -0,0 +1,108 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * @Description LL1冲突检查，找出同一个非终结符的不同候选式SELECT集相交的地方
+ * @Author Jianlong
+ * @Date 2026-10-17 下午 18:40
+ */
+public class LL1ConflictChecker {
+
+    // 一个冲突：非终结符在某个向前看终结符下有多个候选式可选
+    public static class Conflict{
+        public final String nonterminal;
+        public final String terminal;
+        // 相互冲突的产生式，如 E -> E+T
+        public final List<String> alternatives;
+
+        public Conflict(String nonterminal, String terminal, List<String> alternatives) {
+            this.nonterminal = nonterminal;
+            this.terminal = terminal;
+            this.alternatives = Collections.unmodifiableList(alternatives);
+        }
+
+        @Override
+        public String toString() {
+            return "Conflict{" +
+                    "nonterminal=" + nonterminal +
+                    ", terminal=" + terminal +
+                    ", alternatives=" + alternatives +
+                    '}';
+        }
+    }
+
+    /**
+     * 检查文法的所有LL1冲突，没有冲突时返回空列表
+     * 对每个非终结符按顺序把候选式的SELECT集并起来，与已经并起来的部分相交的位就是冲突的终结符，
+     * 每个候选式的SELECT集只参与一次求交和求并；只有出现冲突时才回头找出是哪些候选式
+     */
+    public static List<Conflict> check(GrammarSets sets){
+        CompiledGrammar g = sets.getGrammar();
+        List<Conflict> conflicts = new ArrayList<>();
+
+        long[] seen = new long[sets.words()];
+        long[] duplicated = new long[sets.words()];
+
+        for (int A=g.terminalCount(); A<g.symbolCount(); A++){
+            int[] productions = g.productionsOf(A);
+            if (productions.length < 2){
+                continue;
+            }
+
+            boolean found = false;
+            for (int i=0; i<seen.length; i++){
+                seen[i] = 0;
+                duplicated[i] = 0;
+            }
+            for (int p : productions){
+                long[] select = sets.select(p);
+                for (int i=0; i<seen.length; i++){
+                    long overlap = seen[i] & select[i];
+                    if (overlap != 0){
+                        duplicated[i] |= overlap;
+                        found = true;
+                    }
+                    seen[i] |= select[i];
+                }
+            }
+            if (!found){
+                continue;
+            }
+
+            // 对每个冲突的终结符列出SELECT集包含它的候选式
+            for (int t=0; t<g.terminalCount(); t++){
+                if (!GrammarSets.get(duplicated, t)){
+                    continue;
+                }
+                List<String> alternatives = new ArrayList<>();
+                for (int p : productions){
+                    if (GrammarSets.get(sets.select(p), t)){
+                        alternatives.add(g.productionName(p));
+                    }
+                }
+                conflicts.add(new Conflict(g.name(A), g.name(t), alternatives));
+            }
+        }
+
+        return conflicts;
+    }
+
+    public static void main(String[] args) {
+        // 左递归的文法不是LL1文法
+        String[] Vn = {"E", "T", "F"};
+        String[] Vt = {"+", "*", "(", ")", "i"};
+        String[] P = {
+                "E->E+T|T",
+                "T->T*F|F",
+                "F->(E)|i"
+        };
+        Grammar grammar = new Grammar(Vn, Vt, P, "E");
+
+        List<Conflict> conflicts = check(new GrammarSets(grammar.getCompiled()));
+        System.out.println("冲突个数: " + conflicts.size());
+        for (Conflict conflict : conflicts){
+            System.out.println(conflict);
+        }
+    }
+}
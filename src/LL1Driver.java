@@ -0,0 +1,57 @@
+import java.util.Map;
+
+/**
+ * @Description 预测分析的驱动程序，分析栈是int数组，输入直接使用词法分析得到的种别码
+ * 分析过程中不创建任何对象；驱动程序复用自己的栈，所以一个对象不能同时被多个线程使用，
+ * 多线程时使用CompiledLL1Parser
+ * @Author Jianlong
+ * @Date 2026-10-17 下午 21:00
+ */
+public class LL1Driver {
+
+    private final CompiledLL1Parser parser;
+    // 跟踪分析过程，不跟踪时为ParseTracer.NONE，分析中完全不调用
+    private final ParseTracer tracer;
+    // 复用的分析栈和输入，容量不够时翻倍
+    private final CompiledLL1Parser.Workspace workspace = new CompiledLL1Parser.Workspace();
+
+    /**
+     * @param table 分析表
+     * @param terminals 种别码到终结符的映射，输入结束对应界符#，不需要放在映射中
+     */
+    public LL1Driver(ParseTable table, Map<Integer, String> terminals){
+        this(table, terminals, ParseTracer.NONE);
+    }
+
+    public LL1Driver(ParseTable table, Map<Integer, String> terminals, ParseTracer tracer){
+        this(new CompiledLL1Parser(table, terminals), tracer);
+    }
+
+    public LL1Driver(CompiledLL1Parser parser, ParseTracer tracer){
+        this.parser = parser;
+        this.tracer = tracer;
+    }
+
+    // 种别码对应的终结符编号
+    public int terminal(int syn){
+        return parser.terminal(syn);
+    }
+
+    /**
+     * 分析词法分析的结果，遇到种别码为-1的单词（输入结束）时结束
+     * @return 使用产生式的次数
+     */
+    public int parse(TokenBuffer tokens){
+        return parser.parse(tokens, tracer, workspace);
+    }
+
+    /**
+     * 分析终结符编号序列，遇到界符时结束，没有界符时在末尾补一个
+     * @param input 终结符编号
+     * @param length 输入的长度
+     * @return 使用产生式的次数
+     */
+    public int parse(int[] input, int length){
+        return parser.parse(input, length, tracer, workspace);
+    }
+}
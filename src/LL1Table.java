@@ -0,0 +1,96 @@
+import java.util.Arrays;
+
+/**
+ * @Description 预测分析表，行是非终结符，列是终结符，表项是产生式编号
+ * 分析时查表只需要两次数组访问，产生式的右部直接用编码后的int数组
+ * @Author Jianlong
+ * @Date 2026-10-17 下午 20:30
+ */
+public class LL1Table implements ParseTable {
+
+    // 表中的空项，表示出错
+    public static final int ERROR = -1;
+
+    private final CompiledGrammar grammar;
+    // 终结符个数
+    private final int T;
+    // 分析表，下标为 [非终结符编号-T][终结符编号]
+    private final int[][] table;
+
+    /**
+     * 根据SELECT集构造分析表
+     * 对产生式A->α，SELECT(A->α)中的每个终结符a，置 table[A][a] = A->α
+     * 同一个表项有两个产生式时说明不是LL1文法
+     */
+    public LL1Table(GrammarSets sets){
+        this.grammar = sets.getGrammar();
+        this.T = grammar.terminalCount();
+        this.table = new int[grammar.nonterminalCount()][T];
+        for (int[] row : table){
+            Arrays.fill(row, ERROR);
+        }
+
+        for (int p=0; p<grammar.productionCount(); p++){
+            int[] row = table[grammar.lhs(p) - T];
+            long[] select = sets.select(p);
+            for (int t=0; t<T; t++){
+                if (!GrammarSets.get(select, t)){
+                    continue;
+                }
+                if (row[t] != ERROR){
+                    throw new IllegalArgumentException("ERROR:输入的文法不是LL1文法! "
+                            + grammar.productionName(row[t]) + " 与 " + grammar.productionName(p) + " 在 " + grammar.name(t) + " 上冲突");
+                }
+                row[t] = p;
+            }
+        }
+    }
+
+    // 非终结符遇到终结符时应该使用的产生式，没有时返回ERROR
+    @Override
+    public int production(int nonterminal, int terminal){
+        return table[nonterminal - T][terminal];
+    }
+
+    // 产生式的右部，调用者不能修改返回的数组
+    @Override
+    public int[] rhs(int production){
+        return grammar.rhs(production);
+    }
+
+    @Override
+    public CompiledGrammar getGrammar() {
+        return grammar;
+    }
+
+    // 打印分析表
+    public void printTable(){
+        System.out.print("    ");
+        for (int t=0; t<T; t++){
+            System.out.printf("%-12s", grammar.name(t));
+        }
+        System.out.println();
+        for (int A=T; A<grammar.symbolCount(); A++){
+            System.out.printf("%-4s", grammar.name(A));
+            for (int t=0; t<T; t++){
+                int p = production(A, t);
+                System.out.printf("%-12s", p == ERROR ? "" : grammar.productionName(p));
+            }
+            System.out.println();
+        }
+    }
+
+    public static void main(String[] args) {
+        String[] Vn = {"E", "E\'", "T", "T\'", "F"};
+        String[] Vt = {"+", "NULL", "*", "(", ")", "i"};
+        String[] P = {
+                "E->TE\'",
+                "E\'->+TE\'|NULL",
+                "T->FT\'",
+                "T\'->*FT\'|NULL",
+                "F->(E)|i"
+        };
+        Grammar grammar = new Grammar(Vn, Vt, P, "E");
+        new LL1Table(new GrammarSets(grammar.getCompiled())).printTable();
+    }
+}
@@ -0,0 +1,200 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * @Description 词法分析器性能测试，比较不同实现每秒能识别的单词数
+ * @Author Jianlong
+ * @Date 2026-10-17 上午 11:40
+ */
+public class LexerBenchmark {
+
+    // 每种实现的预热次数和计时次数
+    private static final int WARMUP = 5;
+    private static final int ROUNDS = 10;
+
+    // 生成一个指定大小（字符数）的PL/0源程序，只在末尾有一个结束标志'.'
+    static char[] generateSource(int size){
+        String header = "var x1, x2, total;\n";
+        String body = "    x1 := x1 + 12 * (x2 - 3);\n"
+                + "    (* 多行注释 *)\n"
+                + "    if x1 <= x2 then total := total / 2;\n"
+                + "    while x2 <> 0 do x2 := x2 - 1; // 单行注释\n"
+                + "    if x1 >= 10 then x1 := 0;\n";
+        StringBuilder sb = new StringBuilder(size + body.length() + 16);
+        sb.append(header).append("begin\n");
+        while (sb.length() < size){
+            sb.append(body);
+        }
+        sb.append("end.");
+        return sb.toString().toCharArray();
+    }
+
+    // 生成注释很多的源程序
+    static char[] generateCommentHeavy(int size){
+        String body = "    x1 := x1 + 1; (* 这是一段很长的多行注释，用来模拟自动生成的程序中大段的说明文字 *)\n"
+                + "    // 单行注释也很长，一直到行尾都需要跳过，里面没有任何有意义的单词符号\n";
+        return repeat(body, size);
+    }
+
+    // 生成空白符很多（缩进很深）的源程序
+    static char[] generateBlankHeavy(int size){
+        String body = "                                        x1 := x1 + 1;\n"
+                + "                                                        x2 := x2 - 1;\n";
+        return repeat(body, size);
+    }
+
+    private static char[] repeat(String body, int size){
+        StringBuilder sb = new StringBuilder(size + body.length() + 16);
+        sb.append("var x1, x2;\nbegin\n");
+        while (sb.length() < size){
+            sb.append(body);
+        }
+        sb.append("end.");
+        return sb.toString().toCharArray();
+    }
+
+    // 原来的两遍扫描：preProcess + scanner
+    private static int runTwoPhase(char[] source){
+        LexicalAnalysis la = new LexicalAnalysis();
+        char[] code = la.preProcess(source);
+        int count = 0;
+        int begin = 0;
+        while (la.scanner(code, begin).syn > 0){
+            begin = la.getBegin();
+            count++;
+        }
+        return count;
+    }
+
+    // 单遍扫描：scannerDirect
+    private static int runSinglePass(char[] source){
+        LexicalAnalysis la = new LexicalAnalysis();
+        int count = 0;
+        int begin = 0;
+        while (la.scannerDirect(source, begin).syn > 0){
+            begin = la.getBegin();
+            count++;
+        }
+        return count;
+    }
+
+    // 表驱动的DFA
+    private static int runDFA(char[] source){
+        DFAScanner scanner = new DFAScanner();
+        int count = 0;
+        int begin = 0;
+        while (scanner.scanner(source, begin).syn > 0){
+            begin = scanner.getBegin();
+            count++;
+        }
+        return count;
+    }
+
+    // 表驱动的DFA，单词写入复用的单词缓冲区
+    private static final TokenBuffer BUFFER = new TokenBuffer();
+
+    private static int runTokenBuffer(char[] source){
+        BUFFER.clear();
+        new DFAScanner().tokenize(source, BUFFER);
+        return BUFFER.size() - 1;
+    }
+
+    // 分块并行分析
+    private static final ParallelLexicalAnalysis PARALLEL = new ParallelLexicalAnalysis();
+
+    private static int runParallel(char[] source){
+        BUFFER.clear();
+        PARALLEL.tokenize(source, BUFFER, null);
+        return BUFFER.size() - 1;
+    }
+
+    // 读入并解码整个文件，再在字符上进行分析
+    private static int runReadFile(Path path){
+        try{
+            char[] source = new String(Files.readAllBytes(path), StandardCharsets.UTF_8).toCharArray();
+            BUFFER.clear();
+            new DFAScanner().tokenize(source, BUFFER, new SymbolTable());
+            return BUFFER.size() - 1;
+        } catch (IOException e){
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // 映射文件，直接在字节上进行分析
+    private static int runMappedFile(Path path){
+        try{
+            BUFFER.clear();
+            new DFAScanner().tokenize(path, BUFFER, new SymbolTable());
+            return BUFFER.size() - 1;
+        } catch (IOException e){
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // 在字节上分析，fastSkip决定是否整块跳过空白符和注释
+    private static int runBytes(ByteBuffer source, boolean fastSkip){
+        DFAScanner scanner = new DFAScanner();
+        scanner.setFastSkip(fastSkip);
+        BUFFER.clear();
+        scanner.tokenize(source, BUFFER, null);
+        return BUFFER.size() - 1;
+    }
+
+    // 比较逐字节运行DFA和整块跳过两种方式
+    private static void measureSkip(String name, char[] source){
+        ByteBuffer bytes = ByteBuffer.wrap(new String(source).getBytes(StandardCharsets.UTF_8));
+        measure(name + "逐字节", s -> runBytes(bytes, false), source);
+        measure(name + "整块跳过", s -> runBytes(bytes, true), source);
+    }
+
+    // 接口，方便对不同的实现计时
+    private interface Lexer{
+        int run(char[] source);
+    }
+
+    private static void measure(String name, Lexer lexer, char[] source){
+        int tokens = 0;
+        for (int i=0; i<WARMUP; i++){
+            tokens = lexer.run(source);
+        }
+        long start = System.nanoTime();
+        for (int i=0; i<ROUNDS; i++){
+            tokens = lexer.run(source);
+        }
+        double seconds = (System.nanoTime() - start) / 1e9 / ROUNDS;
+        System.out.printf("%-12s 单词数: %d, 每次耗时: %.2f ms, 每秒单词数: %.0f%n",
+                name, tokens, seconds * 1000, tokens / seconds);
+    }
+
+    public static void main(String[] args) {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 4 * 1024 * 1024;
+        char[] source = generateSource(size);
+        System.out.println("源程序大小: " + source.length + " 个字符");
+
+        measure("两遍扫描", LexerBenchmark::runTwoPhase, source);
+        measure("单遍扫描", LexerBenchmark::runSinglePass, source);
+        measure("DFA", LexerBenchmark::runDFA, source);
+        measure("DFA+缓冲区", LexerBenchmark::runTokenBuffer, source);
+        measure("并行DFA", LexerBenchmark::runParallel, source);
+
+        // 从文件读入的两种方式
+        try{
+            Path path = Files.createTempFile("pl0-bench", ".txt");
+            path.toFile().deleteOnExit();
+            Files.write(path, new String(source).getBytes(StandardCharsets.UTF_8));
+            measure("读入+解码", s -> runReadFile(path), source);
+            measure("内存映射", s -> runMappedFile(path), source);
+        } catch (IOException e){
+            e.printStackTrace();
+        }
+
+        // 跳过空白符和注释
+        measureSkip("普通", source);
+        measureSkip("注释多", generateCommentHeavy(size));
+        measureSkip("空白多", generateBlankHeavy(size));
+    }
+}
@@ -1,7 +1,10 @@
-import java.io.BufferedReader;
-import java.io.FileReader;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -16,9 +19,13 @@ public class LexicalAnalysis {
     private int begin;
     // 存储关键字和运算符和界符表
     Map<String, Integer> keyWords;
+    // 保留字的散列表，直接在字符数组上判断保留字
+    private final KeywordTable keywordTable;
+    // 单字符运算符和界符的种别码，下标为字符
+    private final int[] operators;
 
-    // 内部类
-    private class Token{
+    // 内部类，流式词法分析器也复用它
+    static class Token{
         // 单词的值
         public String value;
         // 种别码
@@ -39,18 +46,14 @@ public class LexicalAnalysis {
     }
 
     public LexicalAnalysis(){
+        this(KeywordTable.pl0());
+    }
+
+    // 使用给定的保留字表，可以扩展保留字（比如read、write）
+    public LexicalAnalysis(KeywordTable keywordTable){
+        this.keywordTable = keywordTable;
         keyWords = new HashMap<>();
-        keyWords.put("begin", 1);
-        keyWords.put("end", 2);
-        keyWords.put("if", 3);
-        keyWords.put("then", 4);
-        keyWords.put("while", 5);
-        keyWords.put("do", 6);
-        keyWords.put("const", 7);
-        keyWords.put("var", 8);
-        keyWords.put("call", 9);
-        keyWords.put("procedure", 10);
-        keyWords.put("odd", 11);
+        keyWords.putAll(keywordTable.getWords());
         keyWords.put("+", 14);
         keyWords.put("-", 15);
         keyWords.put("*", 16);
@@ -68,6 +71,15 @@ public class LexicalAnalysis {
         keyWords.put("(", 28);
         keyWords.put(")", 29);
         keyWords.put(":", 30);
+
+        // 单字符的运算符和界符直接按字符查种别码
+        operators = new int[128];
+        for (Map.Entry<String, Integer> entry : keyWords.entrySet()){
+            String key = entry.getKey();
+            if (key.length() == 1 && !Character.isLetter(key.charAt(0))){
+                operators[key.charAt(0)] = entry.getValue();
+            }
+        }
     }
 
     // getter方法
@@ -88,47 +100,52 @@ public class LexicalAnalysis {
     // 首先，对输入源程序做预处理，处理掉注释、换行符、制表符等等
     public char[] preProcess(char[] source) throws IllegalArgumentException{
         // 构造一个临时数组存储预处理后的源程序
-        char[] temp = new char[8000];
+        // 预处理后的程序不会比源程序长，多留一位'\0'作为扫描时向前看的哨兵
+        char[] temp = new char[source.length + 1];
         int count = 0;
 
         // 逐个扫描源程序中的字符
+        // 注释、换行符、制表符都替换成一个空格，保证它们两边的单词不会被拼接在一起
         outLoop: for (int i=0; i<source.length; i++){
             switch (source[i]){
                 // 去除单行注释
                 case '/':
-                    if (source[i+1] == '/'){
+                    if (i+1 < source.length && source[i+1] == '/'){
                         // 跳过单行注释
                         i = i+2;
                         // 跳过这一行，直到遇到回车换行
-                        while (source[i] != '\n'){
+                        while (i < source.length && source[i] != '\n'){
                             i++;
                         }
+                        temp[count++] = ' ';
                     } else{
                         temp[count++] = source[i];
                     }
                     break;
                 // 去除多行注释
                 case '(':
-                    if (source[i+1] == '*'){
+                    if (i+1 < source.length && source[i+1] == '*'){
                         // 跳过多行注释符号
                         i = i+2;
                         // 当不满足匹配多行注释的时候，跳过
-                        while (!(source[i] == '*' && source[i+1] == ')')){
+                        while (i+1 < source.length && !(source[i] == '*' && source[i+1] == ')')){
                             i++;
-                            // 检查有没有到程序的末尾
-                            if (i >= source.length -2){
-                                throw new IllegalArgumentException("源程序的注释不匹配!");
-                            }
                         }
-                        // 跳过多行注释符号
-                        i = i+2;
+                        // 检查有没有到程序的末尾
+                        if (i+1 >= source.length){
+                            throw new IllegalArgumentException("源程序的注释不匹配!");
+                        }
+                        // 跳过多行注释符号，循环本身还会再加1
+                        i = i+1;
+                        temp[count++] = ' ';
                     } else{
                         temp[count++] = source[i];
                     }
+                    break;
                 case '\n':
                 case '\t':
                 case '\r':
-                    i++;
+                    temp[count++] = ' ';
                     break;
                 // 程序结束标志
                 case '.':
@@ -150,12 +167,8 @@ public class LexicalAnalysis {
         // 保留字、标识符、常数、运算符和界符
         // 可以进一步粗分为3类，字母开头（保留字和标识符）数字开头（常数）其他
 
-        // 存储当前识别的单词符号
-        char[] token = new char[20];
         // 指向程序的索引
         int index1 = begin;
-        // 指向存储单词的数组的索引
-        int index2 = 0;
 
         // 除去单词前的空格
         while (code[index1] == ' '){
@@ -163,24 +176,27 @@ public class LexicalAnalysis {
         }
 
         // 如果单词的首字符为字母
+        // 单词的起始位置
+        int start = index1;
+
         if (Character.isLetter(code[index1])){
-            // 当后续为字母或数字时存入
+            // 当后续为字母或数字时继续向后扫描
             while (Character.isLetter(code[index1]) || Character.isDigit(code[index1])){
-                token[index2++] = code[index1++];
+                index1++;
             }
             // 在map中查找，如果能查找到说明是保留字
             // 否则说明是标识符
             // 每次返回都要维护下index1
             this.setBegin(index1);
-            return new Token(String.valueOf(token).trim(), this.keyWords.getOrDefault(String.valueOf(token).trim(), 12));
+            return new Token(new String(code, start, index1 - start), this.keywordTable.lookup(code, start, index1 - start));
 
         } else if (Character.isDigit(code[index1])){
             // 如果首字符是数字
             while (Character.isDigit(code[index1])){
-                token[index2++] = code[index1++];
+                index1++;
             }
             this.setBegin(index1);
-            return new Token(String.valueOf(token).trim(), 13);
+            return new Token(new String(code, start, index1 - start), 13);
         } else {
             switch (code[index1]){
                 case ':':
@@ -221,7 +237,7 @@ public class LexicalAnalysis {
                 case '(':
                 case ')':
                     this.setBegin(index1+1);
-                    return new Token(String.valueOf(code[index1]), this.keyWords.get(String.valueOf(code[index1])));
+                    return new Token(String.valueOf(code[index1]), this.operators[code[index1]]);
                 case '.':
                     return new Token(".", 0);
                 default:
@@ -231,15 +247,125 @@ public class LexicalAnalysis {
 
     }
 
+    // 单遍扫描：直接在原始源程序上识别单词，注释和空白符在扫描过程中顺便跳过
+    // 不需要preProcess生成中间数组，识别出的单词序列与preProcess+scanner相同
+    public Token scannerDirect(char[] source, int begin){
+        int index = begin;
+
+        // 跳过单词前的空白符和注释
+        while (index < source.length){
+            char c = source[index];
+            if (c == ' ' || c == '\n' || c == '\t' || c == '\r'){
+                index++;
+            } else if (c == '/' && index+1 < source.length && source[index+1] == '/'){
+                // 单行注释，跳到行尾
+                index += 2;
+                while (index < source.length && source[index] != '\n'){
+                    index++;
+                }
+            } else if (c == '(' && index+1 < source.length && source[index+1] == '*'){
+                // 多行注释，跳到'*)'之后
+                index += 2;
+                while (index+1 < source.length && !(source[index] == '*' && source[index+1] == ')')){
+                    index++;
+                }
+                if (index+1 >= source.length){
+                    throw new IllegalArgumentException("源程序的注释不匹配!");
+                }
+                index += 2;
+            } else{
+                break;
+            }
+        }
+
+        // 到了源程序末尾还没有遇到结束标志
+        if (index >= source.length){
+            this.setBegin(index);
+            return new Token("noneType", -1);
+        }
+
+        int start = index;
+        char c = source[index];
+        char next = index+1 < source.length ? source[index+1] : '\0';
+
+        if (Character.isLetter(c)){
+            while (index < source.length && (Character.isLetter(source[index]) || Character.isDigit(source[index]))){
+                index++;
+            }
+            this.setBegin(index);
+            return new Token(new String(source, start, index - start), this.keywordTable.lookup(source, start, index - start));
+        } else if (Character.isDigit(c)){
+            while (index < source.length && Character.isDigit(source[index])){
+                index++;
+            }
+            this.setBegin(index);
+            return new Token(new String(source, start, index - start), 13);
+        }
+
+        switch (c){
+            case ':':
+            case '>':
+                if (next == '='){
+                    this.setBegin(index+2);
+                    return new Token(new String(source, start, 2), this.keyWords.get(new String(source, start, 2)));
+                }
+                this.setBegin(index+1);
+                return new Token(String.valueOf(c), this.operators[c]);
+            case '<':
+                if (next == '=' || next == '>'){
+                    this.setBegin(index+2);
+                    return new Token(new String(source, start, 2), this.keyWords.get(new String(source, start, 2)));
+                }
+                this.setBegin(index+1);
+                return new Token("<", this.keyWords.get("<"));
+            case '+':
+            case '-':
+            case '*':
+            case '/':
+            case '=':
+            case '#':
+            case ',':
+            case ';':
+            case '(':
+            case ')':
+                this.setBegin(index+1);
+                return new Token(String.valueOf(c), this.operators[c]);
+            case '.':
+                this.setBegin(index);
+                return new Token(".", 0);
+            default:
+                this.setBegin(index);
+                return new Token("noneType", -1);
+        }
+    }
+
+    // 识别出全部单词，直到遇到结束标志或非法字符
+    // singlePass为true时使用单遍扫描，否则先预处理再扫描
+    public List<Token> scanAll(char[] source, boolean singlePass){
+        List<Token> tokens = new ArrayList<>();
+        char[] code = singlePass ? source : preProcess(source);
+
+        Token token;
+        this.setBegin(0);
+        do{
+            token = singlePass ? scannerDirect(code, this.getBegin()) : scanner(code, this.getBegin());
+            tokens.add(token);
+        } while (token.syn > 0);
+
+        return tokens;
+    }
+
     public static void main(String[] args) {
-        char[] source = new char[8000];
+        char[] source = new char[0];
+        char[] raw = new char[0];
         LexicalAnalysis la = new LexicalAnalysis();
-        // 开启文件流，读入文件
-        try(BufferedReader reader = new BufferedReader(new FileReader("./src/source.txt"));){
+        // 读入整个文件，不再受固定长度缓冲区的限制
+        // 对于很大的源程序，应该使用StreamLexicalAnalysis进行流式分析
+        try{
             // 读入源程序
-            reader.read(source);
+            raw = new String(Files.readAllBytes(Paths.get("./src/source.txt")), StandardCharsets.UTF_8).toCharArray();
             // 对源程序做预处理
-            source = la.preProcess(source);
+            source = la.preProcess(raw);
             // 开始识别单词
 
         } catch(IOException e){
@@ -263,9 +389,13 @@ public class LexicalAnalysis {
 
         Token tempToken = la.scanner(source, 0);
 
-        while (tempToken.syn != 0){
+        while (tempToken.syn > 0){
             System.out.println(tempToken);
             tempToken = la.scanner(source, la.getBegin());
         }
+
+        // 对比单遍扫描和两遍扫描的结果
+        System.out.println("单遍扫描的结果与两遍扫描一致吗？ "
+                + la.scanAll(raw, true).toString().equals(la.scanAll(raw, false).toString()));
     }
 }
\ No newline at end of file
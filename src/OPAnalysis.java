@@ -68,26 +68,16 @@ public class OPAnalysis {
         // 标识是否有非终结符相邻的情况
         boolean flag = false;
 
-        Map<String, String[]> P = grammar.getP();
-        Set<String> nonEndChars = grammar.getNonEndChars();
+        CompiledGrammar g = grammar.getCompiled();
 
         // 遍历所有产生式
-        outer:for (String[] rightItems : P.values()) {
-            // 遍历右部
-            for (String item : rightItems) {
-                // 分解为符号列表
-                List<String> characters = grammar.disassemble(item);
-                // 检查是否有相邻的非终结符
-                for (int i=0; i<characters.size(); i++){
-                    // 两个符号两个符号地进行扫描
-                    if (i < characters.size() - 2){
-                        String char1 = characters.get(i);
-                        String char2 = characters.get(i+1);
-                        if (nonEndChars.contains(char1) && nonEndChars.contains(char2)){
-                            flag = true;
-                            break outer;
-                        }
-                    }
+        outer:for (int p=0; p<g.productionCount(); p++) {
+            int[] right = g.rhs(p);
+            // 两个符号两个符号地扫描，检查是否有相邻的非终结符
+            for (int i=0; i+1<right.length; i++){
+                if (g.isNonterminal(right[i]) && g.isNonterminal(right[i+1])){
+                    flag = true;
+                    break outer;
                 }
             }
         }
@@ -103,20 +93,13 @@ public class OPAnalysis {
 
         boolean flag = false;
 
-        Map<String, String[]> P = grammar.getP();
-
-        outer:for (String[] rightItems : P.values()) {
-            // 遍历右部
-            for (String item : rightItems) {
-                // 分解为符号列表
-                List<String> characters = grammar.disassemble(item);
-                // 遍历每一个符号
-                for (String character : characters){
-                    if (character.equals("NULL")){
-                        flag = true;
-                        break outer;
-                    }
-                }
+        CompiledGrammar g = grammar.getCompiled();
+
+        // 空产生式编码后右部的长度为0
+        for (int p=0; p<g.productionCount(); p++) {
+            if (g.rhs(p).length == 0){
+                flag = true;
+                break;
             }
         }
 
@@ -143,47 +126,33 @@ public class OPAnalysis {
      */
     private Set<String> FIRSTVTx(String x){
 
-        Set<String> nonEndChars = grammar.getNonEndChars();
-        Set<String> endChars = grammar.getEndChars();
-        Map<String, String[]> P = grammar.getP();
+        CompiledGrammar g = grammar.getCompiled();
 
         Set<String> firstvt = new HashSet<>();
 
-        for (Map.Entry<String, String[]> entry : grammar.getP().entrySet()) {
-
-            String leftItem = entry.getKey();
-
-            // 找到左部为查找的非终结符的那些产生式
-            // 否则跳过
-            if (!leftItem.equals(x)){
+        // 只看左部为查找的非终结符的那些产生式
+        for (int p : g.productionsOf(g.id(x))) {
+            int[] right = g.rhs(p);
+            // 算符优先文法没有空产生式
+            if (right.length == 0){
                 continue;
             }
-
-            String[] rightItems = entry.getValue();
-
-            // 遍历右部
-            for (String item : rightItems) {
-                // 分解为符号列表
-                List<String> characters = grammar.disassemble(item);
-                // 判断长度是否大于2
-                if (characters.size() < 2){
-                    String character = characters.get(0);
-                    // 如果是非终结符，就把其FIRSTVT加入
-                    if (nonEndChars.contains(character)){
-                        firstvt.addAll(FIRSTVTx(character));
-                    }
-                    else{
-                        firstvt.add(character);
-                    }
+            // 判断长度是否大于2
+            if (right.length < 2){
+                // 如果是非终结符，就把其FIRSTVT加入
+                if (g.isNonterminal(right[0])){
+                    firstvt.addAll(FIRSTVTx(g.name(right[0])));
                 }
                 else{
-                    String character = characters.get(0);
-                    if (nonEndChars.contains(character)){
-                        firstvt.add(characters.get(1));
-                    }
-                    else{
-                        firstvt.add(character);
-                    }
+                    firstvt.add(g.name(right[0]));
+                }
+            }
+            else{
+                if (g.isNonterminal(right[0])){
+                    firstvt.add(g.name(right[1]));
+                }
+                else{
+                    firstvt.add(g.name(right[0]));
                 }
             }
         }
@@ -211,47 +180,34 @@ public class OPAnalysis {
      */
     private Set<String> LASTVTx(String x){
 
-        Set<String> nonEndChars = grammar.getNonEndChars();
-        Set<String> endChars = grammar.getEndChars();
-        Map<String, String[]> P = grammar.getP();
+        CompiledGrammar g = grammar.getCompiled();
 
         Set<String> lastvt = new HashSet<>();
 
-        for (Map.Entry<String, String[]> entry : grammar.getP().entrySet()) {
-
-            String leftItem = entry.getKey();
-
-            // 找到左部为查找的非终结符的那些产生式
-            // 否则跳过
-            if (!leftItem.equals(x)){
+        // 只看左部为查找的非终结符的那些产生式
+        for (int p : g.productionsOf(g.id(x))) {
+            int[] right = g.rhs(p);
+            // 算符优先文法没有空产生式
+            if (right.length == 0){
                 continue;
             }
-
-            String[] rightItems = entry.getValue();
-
-            // 遍历右部
-            for (String item : rightItems) {
-                // 分解为符号列表
-                List<String> characters = grammar.disassemble(item);
-                // 判断长度是否大于2
-                if (characters.size() < 2){
-                    String character = characters.get(characters.size() - 1);
-                    // 如果是非终结符，就把其LASTVT加入
-                    if (nonEndChars.contains(character)){
-                        lastvt.addAll(LASTVTx(character));
-                    }
-                    else{
-                        lastvt.add(character);
-                    }
+            int last = right.length - 1;
+            // 判断长度是否大于2
+            if (right.length < 2){
+                // 如果是非终结符，就把其LASTVT加入
+                if (g.isNonterminal(right[last])){
+                    lastvt.addAll(LASTVTx(g.name(right[last])));
                 }
                 else{
-                    String character = characters.get(characters.size() - 1);
-                    if (nonEndChars.contains(character)){
-                        lastvt.add(characters.get(characters.size() - 2));
-                    }
-                    else{
-                        lastvt.add(character);
-                    }
+                    lastvt.add(g.name(right[last]));
+                }
+            }
+            else{
+                if (g.isNonterminal(right[last])){
+                    lastvt.add(g.name(right[last - 1]));
+                }
+                else{
+                    lastvt.add(g.name(right[last]));
                 }
             }
         }
@@ -272,7 +228,8 @@ public class OPAnalysis {
 
         for (String endChar : vt){
             int j = index.get(endChar);
-            if (matrix[i][j] != ""){
+            // 同一个关系可以由不同的产生式重复得到，不算冲突
+            if (matrix[i][j] != "" && matrix[i][j] != "<"){
                 return false;
             }
             else{
@@ -296,7 +253,7 @@ public class OPAnalysis {
 
         for (String endChar : vt){
             int j = index.get(endChar);
-            if (matrix[j][i] != ""){
+            if (matrix[j][i] != "" && matrix[j][i] != ">"){
                 return false;
             }
             else{
@@ -307,6 +264,28 @@ public class OPAnalysis {
         return true;
     }
 
+    /**
+     * 写优先关系矩阵
+     * left和right的优先级相等
+     * @param left
+     * @param right
+     * @return
+     */
+    private boolean writeMatrixE(String left, String right){
+
+        int i = index.get(left);
+        int j = index.get(right);
+
+        if (matrix[i][j] != "" && matrix[i][j] != "="){
+            return false;
+        }
+        else{
+            matrix[i][j] = "=";
+        }
+
+        return true;
+    }
+
     /**
      * 填充算符优先关系矩阵并判断文法是否是算符优先文法
      * @return
@@ -321,39 +300,40 @@ public class OPAnalysis {
             }
         }
 
-        Map<String, String[]> P = grammar.getP();
-        Set<String> endChars = grammar.getEndChars();
+        CompiledGrammar g = grammar.getCompiled();
 
         // 遍历所有产生式
-        for (String[] rightItems : P.values()) {
-            // 遍历右部
-            for (String item : rightItems) {
-                // 分解为符号列表
-                List<String> characters = grammar.disassemble(item);
-                // 找到终结符的位置
-                for (int i = 0; i < characters.size(); i++) {
+        for (int p=0; p<g.productionCount(); p++) {
+            int[] right = g.rhs(p);
+            // 找到终结符的位置
+            for (int i = 0; i < right.length; i++) {
+                if (g.isTerminal(right[i])){
                     // 获得当前符号
-                    String character = characters.get(i);
-                    if (endChars.contains(character)){
-                        // 其左边的非终结符的LASTVT集合里的符号优先级都大于当前的终结符
-                        if (i > 0){
-                            Set<String> lastvt = LASTVT.get(characters.get(i-1));
-                            if (! writeMatrixR(lastvt, character)){
-                                return false;
-                            }
+                    String character = g.name(right[i]);
+                    // 其左边的非终结符的LASTVT集合里的符号优先级都大于当前的终结符
+                    if (i > 0 && g.isNonterminal(right[i-1])){
+                        Set<String> lastvt = LASTVT.get(g.name(right[i-1]));
+                        if (! writeMatrixR(lastvt, character)){
+                            return false;
+                        }
+                    }
+                    // 当前的终结符优先级小于其右边的非终结符的FIRSTVT集合里的符号
+                    if (i < right.length - 1 && g.isNonterminal(right[i+1])){
+                        Set<String> firstvt = FIRSTVT.get(g.name(right[i+1]));
+                        if (! writeMatrixL(firstvt, character)){
+                            return false;
                         }
-                        // 其右边的非终结符的FIRSTVT集合里的符号优先级都大于当前的终结符
-                        if (i < characters.size() - 1){
-                            Set<String> firstvt = FIRSTVT.get(characters.get(i+1));
-                            if (! writeMatrixL(firstvt, character)){
-                                return false;
-                            }
+                    }
+                    // 处理等号的情况：两个终结符相邻
+                    if (i+1 < right.length && g.isTerminal(right[i+1])){
+                        if (! writeMatrixE(character, g.name(right[i+1]))){
+                            return false;
                         }
-                        // 处理等号的情况
-                        if (i+2 <characters.size()){
-                            int row = index.get(character);
-                            int column = index.get(characters.get(i+2));
-                            matrix[row][column] = "=";
+                    }
+                    // 两个终结符之间只隔一个非终结符
+                    if (i+2 < right.length && g.isNonterminal(right[i+1]) && g.isTerminal(right[i+2])){
+                        if (! writeMatrixE(character, g.name(right[i+2]))){
+                            return false;
                         }
                     }
                 }
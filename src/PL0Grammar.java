@@ -0,0 +1,107 @@
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * @Description PL/0语言的LL1文法，终结符是词法分析得到的单词，多字符符号之间用空格分开
+ * 语句可以为空，所以 begin S1; S2; end 这样最后多一个分号也是合法的
+ * @Author Jianlong
+ * @Date 2026-10-17 下午 23:52
+ */
+public class PL0Grammar {
+
+    // read和write的种别码，PL/0的基本保留字表中没有，需要扩展
+    public static final int READ = 31;
+    public static final int WRITE = 32;
+
+    private static final String[] VN = {
+            "program", "block", "constDecl", "constDef", "constRest", "varDecl", "identList",
+            "procDecl", "statement", "statementRest", "writeList",
+            "condition", "relop", "expression", "sign", "termRest", "addop",
+            "term", "factorRest", "mulop", "factor"
+    };
+
+    private static final String[] VT = {
+            "const", "var", "procedure", "begin", "end", "if", "then", "while", "do", "call", "odd",
+            "read", "write", "ident", "number",
+            "+", "-", "*", "/", ":=", "=", "<>", "<", "<=", ">", ">=", ",", ";", "(", ")", ".", "NULL"
+    };
+
+    private static final String[] P = {
+            "program -> block .",
+            "block -> constDecl varDecl procDecl statement",
+            "constDecl -> const constDef constRest ; | NULL",
+            "constDef -> ident = number",
+            "constRest -> , constDef constRest | NULL",
+            "varDecl -> var ident identList ; | NULL",
+            "identList -> , ident identList | NULL",
+            "procDecl -> procedure ident ; block ; procDecl | NULL",
+            "statement -> ident := expression | call ident | begin statement statementRest end"
+                    + " | if condition then statement | while condition do statement"
+                    + " | read ( ident identList ) | write ( expression writeList ) | NULL",
+            "statementRest -> ; statement statementRest | NULL",
+            "writeList -> , expression writeList | NULL",
+            "condition -> odd expression | expression relop expression",
+            "relop -> = | <> | < | <= | > | >=",
+            "expression -> sign term termRest",
+            "sign -> + | - | NULL",
+            "termRest -> addop term termRest | NULL",
+            "addop -> + | -",
+            "term -> factor factorRest",
+            "factorRest -> mulop factor factorRest | NULL",
+            "mulop -> * | /",
+            "factor -> ident | number | ( expression )"
+    };
+
+    // 每次返回一个新的文法对象，Grammar可以修改产生式，不能共享
+    public static Grammar grammar(){
+        return new Grammar(VN, VT, P, "program");
+    }
+
+    // 加入read、write之后的保留字表
+    public static KeywordTable keywords(){
+        return KeywordTable.pl0().extend(new String[]{"read", "write"}, new int[]{READ, WRITE});
+    }
+
+    // 种别码到终结符的映射，# 和 <> 都是不等号
+    public static Map<Integer, String> terminals(){
+        Map<Integer, String> terminals = new HashMap<>();
+        String[] words = {"begin", "end", "if", "then", "while", "do", "const", "var", "call", "procedure", "odd"};
+        for (int i=0; i<words.length; i++){
+            terminals.put(i + 1, words[i]);
+        }
+        terminals.put(KeywordTable.IDENT, "ident");
+        terminals.put(13, "number");
+        terminals.put(14, "+");
+        terminals.put(15, "-");
+        terminals.put(16, "*");
+        terminals.put(17, "/");
+        terminals.put(18, ":=");
+        terminals.put(19, "<");
+        terminals.put(20, "<=");
+        terminals.put(21, ">");
+        terminals.put(22, ">=");
+        terminals.put(23, "<>");
+        terminals.put(24, "=");
+        terminals.put(25, "<>");
+        terminals.put(26, ",");
+        terminals.put(27, ";");
+        terminals.put(28, "(");
+        terminals.put(29, ")");
+        terminals.put(0, ".");
+        terminals.put(READ, "read");
+        terminals.put(WRITE, "write");
+        return terminals;
+    }
+
+    public static void main(String[] args) {
+        Grammar grammar = grammar();
+        GrammarSets sets = new GrammarSets(grammar.getCompiled());
+        CompiledGrammar g = grammar.getCompiled();
+        System.out.println("非终结符: " + g.nonterminalCount() + ", 终结符: " + g.terminalCount()
+                + ", 产生式: " + g.productionCount());
+        System.out.println("LL1冲突: " + LL1ConflictChecker.check(sets));
+        for (int A=g.terminalCount(); A<g.symbolCount(); A++){
+            System.out.println("FOLLOW(" + g.name(A) + ") = " + sets.names(sets.follow(A)));
+        }
+    }
+}
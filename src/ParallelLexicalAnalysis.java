@@ -0,0 +1,169 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * @Description 并行词法分析，把很大的源程序分块后同时分析，再拼接成与顺序分析完全相同的结果
+ * @Author Jianlong
+ * @Date 2026-10-17 下午 16:30
+ */
+public class ParallelLexicalAnalysis {
+
+    // 源程序小于这个长度时直接顺序分析
+    private static final int MIN_PARALLEL_LENGTH = 1 << 16;
+
+    private final ForkJoinPool pool;
+    // 分块的个数
+    private final int chunks;
+    private final KeywordTable keywords;
+
+    // 一块的推测分析结果
+    private static class Chunk{
+        // 这一块推测分析的起始位置
+        int from;
+        // 推测分析出的单词，只包含起始位置在本块范围内的单词
+        TokenBuffer tokens;
+    }
+
+    public ParallelLexicalAnalysis(){
+        this(ForkJoinPool.commonPool(), ForkJoinPool.getCommonPoolParallelism() * 4, KeywordTable.pl0());
+    }
+
+    public ParallelLexicalAnalysis(ForkJoinPool pool, int chunks, KeywordTable keywords){
+        this.pool = pool;
+        this.chunks = Math.max(chunks, 1);
+        this.keywords = keywords;
+    }
+
+    /**
+     * 并行地识别全部单词，结果与DFAScanner.tokenize顺序分析的结果完全相同
+     * 标识符表需要按出现顺序分配编号，所以在拼接之后顺序地加入
+     */
+    public void tokenize(char[] source, TokenBuffer tokens, SymbolTable symbols){
+        int n = Math.min(chunks, source.length / MIN_PARALLEL_LENGTH);
+        if (n <= 1){
+            new DFAScanner(keywords).tokenize(source, tokens, symbols);
+            return;
+        }
+
+        // 每一块从块的起始位置开始推测分析，假设这里不在注释或单词中间
+        List<Callable<Chunk>> tasks = new ArrayList<>();
+        for (int k=0; k<n; k++){
+            int from = (int) ((long) source.length * k / n);
+            int to = (int) ((long) source.length * (k + 1) / n);
+            tasks.add(() -> lexChunk(source, from, to));
+        }
+
+        Chunk[] results = new Chunk[n];
+        List<Future<Chunk>> futures = pool.invokeAll(tasks);
+        try{
+            for (int k=0; k<n; k++){
+                results[k] = futures.get(k).get();
+            }
+        } catch (InterruptedException e){
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("词法分析被中断!", e);
+        } catch (ExecutionException e){
+            throw new IllegalStateException("词法分析出错!", e.getCause());
+        }
+
+        tokens.setSource(source);
+        stitch(source, results, tokens);
+
+        if (symbols != null){
+            for (int i=0; i<tokens.size(); i++){
+                if (tokens.syn(i) == 12){
+                    tokens.setSymbol(i, symbols.intern(source, tokens.start(i), tokens.length(i)));
+                }
+            }
+        }
+    }
+
+    // 推测分析一块，直到遇到起始位置超出本块的单词
+    private Chunk lexChunk(char[] source, int from, int to){
+        Chunk chunk = new Chunk();
+        chunk.from = from;
+        chunk.tokens = new TokenBuffer((to - from) / 4);
+
+        DFAScanner scanner = new DFAScanner(keywords);
+        int position = from;
+        try{
+            while (true){
+                int syn = scanner.nextToken(source, position);
+                // 属于下一块的单词由下一块负责，最后一块一直分析到结束
+                if (scanner.getStart() >= to && to < source.length){
+                    break;
+                }
+                chunk.tokens.add(syn, scanner.getStart(), scanner.getBegin() - scanner.getStart());
+                position = scanner.getBegin();
+                if (syn <= 0){
+                    break;
+                }
+            }
+        } catch (IllegalArgumentException e){
+            // 推测的起点可能在注释中间，导致后面的注释看起来不匹配
+            // 这里只保留已经分析出的单词，拼接时从出错的位置开始顺序分析，真正的错误会在那里重新抛出
+        }
+        return chunk;
+    }
+
+    // 第i个单词是从哪个位置开始扫描的：第一个是块的起点，其余是前一个单词的结束位置
+    private static int scanPosition(Chunk chunk, int i){
+        if (i == 0){
+            return chunk.from;
+        }
+        return chunk.tokens.start(i - 1) + chunk.tokens.length(i - 1);
+    }
+
+    /**
+     * 拼接各块的结果
+     * 从同一个位置开始扫描得到的单词序列是确定的，所以只要顺序分析到达的位置与某一块的某个扫描起点重合，
+     * 这一块从这里开始的推测结果就是正确的，可以整段复制；不重合时（块边界落在单词或注释中间）就顺序分析一个单词再比较
+     */
+    private void stitch(char[] source, Chunk[] results, TokenBuffer tokens){
+        DFAScanner scanner = new DFAScanner(keywords);
+        int position = 0;
+
+        for (Chunk chunk : results){
+            TokenBuffer speculative = chunk.tokens;
+            int m = speculative.size();
+            int i = 0;
+
+            while (true){
+                while (i < m && scanPosition(chunk, i) < position){
+                    i++;
+                }
+                // 本块已经没有可以重合的位置了，交给下一块
+                if (i == m){
+                    break;
+                }
+                if (scanPosition(chunk, i) == position){
+                    tokens.append(speculative, i, m);
+                    position = speculative.start(m - 1) + speculative.length(m - 1);
+                    if (speculative.syn(m - 1) <= 0){
+                        return;
+                    }
+                    break;
+                }
+                // 顺序分析一个单词
+                int syn = scanner.nextToken(source, position);
+                tokens.add(syn, scanner.getStart(), scanner.getBegin() - scanner.getStart());
+                position = scanner.getBegin();
+                if (syn <= 0){
+                    return;
+                }
+            }
+        }
+
+        // 最后一块推测分析中途出错，剩下的部分顺序分析
+        int syn;
+        do{
+            syn = scanner.nextToken(source, position);
+            tokens.add(syn, scanner.getStart(), scanner.getBegin() - scanner.getStart());
+            position = scanner.getBegin();
+        } while (syn > 0);
+    }
+}
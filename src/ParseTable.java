@@ -0,0 +1,15 @@
+/**
+ * @Description 预测分析表的接口，分析程序只通过它查表，可以换用不同的存储方式
+ * @Author Jianlong
+ * @Date 2026-10-17 下午 23:20
+ */
+public interface ParseTable {
+
+    // 非终结符遇到终结符时应该使用的产生式，没有时返回LL1Table.ERROR
+    int production(int nonterminal, int terminal);
+
+    // 产生式的右部，调用者不能修改返回的数组
+    int[] rhs(int production);
+
+    CompiledGrammar getGrammar();
+}
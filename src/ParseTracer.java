@@ -0,0 +1,37 @@
+/**
+ * @Description 语法分析过程的跟踪接口，分析器在每一步调用，参数都是编码后的符号编号
+ * 所有方法默认什么都不做；分析器用NONE时不调用任何方法，正式运行时没有跟踪的开销
+ * @Author Jianlong
+ * @Date 2026-10-17 下午 21:50
+ */
+public interface ParseTracer {
+
+    // 不跟踪
+    ParseTracer NONE = new ParseTracer() {};
+
+    // 分析开始前调用，input是编码后的整个输入串；流式分析事先不知道输入串，不调用
+    default void begin(int[] input){}
+
+    /**
+     * 每一步开始时调用
+     * @param step 步数，从0开始
+     * @param top 栈顶符号
+     * @param lookahead 当前输入的终结符
+     */
+    default void step(int step, int top, int lookahead){}
+
+    // 栈顶的非终结符被替换为产生式的右部
+    default void production(int step, int nonterminal, int production){}
+
+    // 栈顶的终结符与输入匹配，position是输入中的位置
+    default void match(int step, int terminal, int position){}
+
+    // 分析成功
+    default void accept(int step){}
+
+    // 分析出错，随后分析器会抛出异常
+    default void error(int step, int top, int lookahead, int position){}
+
+    // 把缓冲的内容写出，分析结束时（包括因为其他异常结束时）调用
+    default void flush(){}
+}
@@ -0,0 +1,264 @@
+import java.io.CharArrayReader;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.Stack;
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+
+/**
+ * @Description 语法分析器性能测试，比较不同实现每秒能分析的单词数
+ * 文法是以PL/0单词为终结符的表达式文法，输入由词法分析器得到
+ * @Author Jianlong
+ * @Date 2026-10-17 下午 21:20
+ */
+public class ParserBenchmark {
+
+    // 每种实现的预热次数和计时次数
+    private static final int WARMUP = 5;
+    private static final int ROUNDS = 10;
+
+    // 表达式文法，i是标识符，n是无符号整数
+    static Grammar expressionGrammar(){
+        String[] Vn = {"E", "E\'", "T", "T\'", "F"};
+        String[] Vt = {"+", "-", "*", "/", "(", ")", "i", "n", "NULL"};
+        String[] P = {
+                "E->TE\'",
+                "E\'->+TE\'|-TE\'|NULL",
+                "T->FT\'",
+                "T\'->*FT\'|/FT\'|NULL",
+                "F->(E)|i|n"
+        };
+        return new Grammar(Vn, Vt, P, "E");
+    }
+
+    // 同样的表达式，不消除左递归，用于LALR1分析
+    static Grammar leftRecursiveGrammar(){
+        String[] Vn = {"E", "T", "F"};
+        String[] Vt = {"+", "-", "*", "/", "(", ")", "i", "n"};
+        String[] P = {
+                "E->E+T|E-T|T",
+                "T->T*F|T/F|F",
+                "F->(E)|i|n"
+        };
+        return new Grammar(Vn, Vt, P, "E");
+    }
+
+    // 种别码到表达式文法终结符的映射
+    static Map<Integer, String> expressionTerminals(){
+        Map<Integer, String> terminals = new HashMap<>();
+        terminals.put(12, "i");
+        terminals.put(13, "n");
+        terminals.put(14, "+");
+        terminals.put(15, "-");
+        terminals.put(16, "*");
+        terminals.put(17, "/");
+        terminals.put(28, "(");
+        terminals.put(29, ")");
+        return terminals;
+    }
+
+    // 生成一个指定大小（字符数）的表达式
+    static char[] generateExpression(int size){
+        String body = "x1 + 12 * (x2 - 3) / total - (a + b * (c - 7)) * 2 + ";
+        StringBuilder sb = new StringBuilder(size + body.length() + 16);
+        while (sb.length() < size){
+            sb.append(body);
+        }
+        sb.append("x1");
+        return sb.toString().toCharArray();
+    }
+
+    /**
+     * 原来的预测分析方法，去掉了输出：分析表的键是 左部+终结符 拼接的字符串，
+     * 分析栈是Stack<String>，每次使用产生式都要拆分产生式的字符串
+     */
+    private static int runStringTable(Grammar grammar, Map<String, String> analysisTable, List<String> str){
+        Stack<String> analysisStack = new Stack<>();
+        analysisStack.push("#");
+        analysisStack.push(grammar.getStart());
+        int count = 0;
+
+        for (int i=0; i<str.size(); i++){
+            String x = analysisStack.peek();
+            String c = str.get(i);
+            if (grammar.getEndChars().contains(x) || x.equals("#")){
+                if (c.equals("#") && c.equals(x)){
+                    return count;
+                }
+                analysisStack.pop();
+            } else{
+                String production = analysisTable.get(x + c);
+                if (production == null){
+                    throw new IllegalArgumentException("ERROR:分析出错!");
+                }
+                analysisStack.pop();
+                String right = production.split("->")[1].trim();
+                List<String> rightChars = grammar.disassemble(right);
+                for (int j=rightChars.size()-1; j>=0; j--){
+                    if (!rightChars.get(j).equals("NULL")){
+                        analysisStack.push(rightChars.get(j));
+                    }
+                }
+                count++;
+                i--;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * 用ParserGenerator生成递归下降分析器，在运行时编译并加载
+     * @return 生成的类的parse方法，运行环境中没有编译器时返回null
+     */
+    static Method compileGenerated(ParseTable table, String className) throws IOException{
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        if (compiler == null){
+            return null;
+        }
+        Path dir = Files.createTempDirectory("generated");
+        Path file = new ParserGenerator(table).write(dir, className);
+        if (compiler.run(null, null, null, "-encoding", "UTF-8", "-d", dir.toString(), file.toString()) != 0){
+            throw new IllegalStateException("生成的分析器编译失败: " + file);
+        }
+        try{
+            URLClassLoader loader = new URLClassLoader(new URL[]{dir.toUri().toURL()});
+            return loader.loadClass(className).getMethod("parse", int[].class, int.class);
+        } catch (ReflectiveOperationException e){
+            throw new IllegalStateException("无法加载生成的分析器!", e);
+        }
+    }
+
+    // 接口，方便对不同的实现计时
+    private interface Parser{
+        int run();
+    }
+
+    private static void measure(String name, Parser parser, int tokens){
+        int productions = 0;
+        for (int i=0; i<WARMUP; i++){
+            productions = parser.run();
+        }
+        long start = System.nanoTime();
+        for (int i=0; i<ROUNDS; i++){
+            productions = parser.run();
+        }
+        double seconds = (System.nanoTime() - start) / 1e9 / ROUNDS;
+        System.out.printf("%-16s 使用产生式: %d, 每次耗时: %.2f ms, 每秒单词数: %.0f%n",
+                name, productions, seconds * 1000, tokens / seconds);
+    }
+
+    public static void main(String[] args) throws IOException {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 4 * 1024 * 1024;
+        char[] source = generateExpression(size);
+
+        TokenBuffer tokens = new TokenBuffer();
+        new DFAScanner().tokenize(source, tokens);
+        System.out.println("源程序大小: " + source.length + " 个字符, 单词数: " + tokens.size());
+
+        Grammar grammar = expressionGrammar();
+        Map<Integer, String> terminals = expressionTerminals();
+        GrammarSets sets = new GrammarSets(grammar.getCompiled());
+        LL1Table table = new LL1Table(sets);
+
+        // 原来的字符串分析表和符号串输入
+        Map<String, String> analysisTable = new HashMap<>();
+        CompiledGrammar g = grammar.getCompiled();
+        for (int p=0; p<g.productionCount(); p++){
+            for (String value : sets.names(sets.select(p))){
+                analysisTable.put(g.name(g.lhs(p)) + value, g.productionName(p));
+            }
+        }
+        List<String> str = new ArrayList<>(tokens.size());
+        for (int i=0; i<tokens.size(); i++){
+            str.add(tokens.isEnd(i) ? "#" : terminals.get(tokens.syn(i)));
+        }
+
+        measure("字符串分析表", () -> runStringTable(grammar, analysisTable, str), tokens.size());
+
+        LL1Driver driver = new LL1Driver(table, terminals);
+        measure("int栈驱动程序", () -> driver.parse(tokens), tokens.size());
+        LL1Driver compressed = new LL1Driver(new CompressedLL1Table(table), terminals);
+        measure("压缩分析表", () -> compressed.parse(tokens), tokens.size());
+        LALRParser lalr = new LALRParser(leftRecursiveGrammar(), terminals);
+        measure("LALR1(归约次数)", () -> lalr.parse(tokens), tokens.size());
+
+        // 生成的递归下降分析器，输入是同样的终结符编号
+        Method generated = compileGenerated(table, "ExpressionParser");
+        if (generated == null){
+            System.out.println("运行环境中没有Java编译器，跳过生成的分析器");
+        } else{
+            int[] input = new int[tokens.size()];
+            for (int i=0; i<input.length; i++){
+                input[i] = tokens.isEnd(i) ? g.getEnd() : driver.terminal(tokens.syn(i));
+            }
+            measure("生成的递归下降", () -> {
+                try{
+                    return (int) generated.invoke(null, input, input.length);
+                } catch (IllegalAccessException | InvocationTargetException e){
+                    throw new IllegalStateException(e);
+                }
+            }, tokens.size());
+        }
+
+        // 跟踪的开销，输出丢弃
+        LL1Driver binary = new LL1Driver(table, terminals, new BinaryParseTracer(OutputStream.nullOutputStream()));
+        measure("二进制跟踪", () -> binary.parse(tokens), tokens.size());
+        LL1Driver text = new LL1Driver(table, terminals, new TextParseTracer(g, Writer.nullWriter()));
+        measure("文字跟踪", () -> text.parse(tokens), tokens.size());
+
+        // 构造语法树
+        CompiledLL1Parser treeParser = new CompiledLL1Parser(table, terminals);
+        measure("构造语法树", () -> treeParser.parseTree(tokens).size(), tokens.size());
+
+        // 流式分析，包含词法分析的时间
+        CompiledLL1Parser streaming = new CompiledLL1Parser(table, terminals);
+        measure("流式词法+语法", () -> streaming.parse(
+                new StreamLexicalAnalysis(new CharArrayReader(source)).tokens(), ParseTracer.NONE), tokens.size());
+
+        // 很多小输入：每次都重新分析文法，和只编译一次的分析器比较
+        List<TokenBuffer> inputs = new ArrayList<>();
+        int small = 0;
+        for (int i=0; i<2000; i++){
+            TokenBuffer buffer = new TokenBuffer();
+            new DFAScanner().tokenize(generateExpression(200 + i % 100), buffer);
+            inputs.add(buffer);
+            small += buffer.size();
+        }
+        System.out.println("小输入个数: " + inputs.size() + ", 单词数: " + small);
+        measure("每次分析文法", () -> {
+            int count = 0;
+            for (TokenBuffer input : inputs){
+                LL1Table t = new LL1Table(new GrammarSets(expressionGrammar().getCompiled()));
+                count += new CompiledLL1Parser(t, terminals).parse(input);
+            }
+            return count;
+        }, small);
+        CompiledLL1Parser parser = new CompiledLL1Parser(table, terminals);
+        measure("编译一次", () -> {
+            int count = 0;
+            for (TokenBuffer input : inputs){
+                count += parser.parse(input);
+            }
+            return count;
+        }, small);
+        measure("并行parseAll", () -> {
+            int count = 0;
+            for (CompiledLL1Parser.Result result : parser.parseAll(inputs)){
+                count += result.productions;
+            }
+            return count;
+        }, small);
+    }
+}
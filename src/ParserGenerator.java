@@ -0,0 +1,191 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * @Description 根据LL1分析表生成递归下降分析器的Java源程序
+ * 每个非终结符生成一个方法，用switch按当前输入符号选择产生式，不再需要在分析时查表；
+ * 产生式右部最后一个符号是自己时（如 E'->+TE'）不递归调用，而是回到方法开头循环
+ * 生成的类有一个静态方法 int parse(int[] input, int length)，输入和返回值与CompiledLL1Parser.parse相同
+ * @Author Jianlong
+ * @Date 2026-10-17 下午 23:00
+ */
+public class ParserGenerator {
+
+    private final ParseTable table;
+    private final CompiledGrammar grammar;
+
+    public ParserGenerator(Grammar grammar){
+        this(new LL1Table(new GrammarSets(grammar.getCompiled())));
+    }
+
+    public ParserGenerator(ParseTable table){
+        this.table = table;
+        this.grammar = table.getGrammar();
+    }
+
+    // 非终结符对应的方法名，名字中可能有'等字符，所以使用符号编号
+    private static String method(int nonterminal){
+        return "parse" + nonterminal;
+    }
+
+    // 写成Java字符串常量
+    private static String literal(String s){
+        StringBuilder sb = new StringBuilder("\"");
+        for (char ch : s.toCharArray()){
+            if (ch == '"' || ch == '\\'){
+                sb.append('\\');
+            }
+            sb.append(ch);
+        }
+        return sb.append('"').toString();
+    }
+
+    /**
+     * 生成分析器的源程序
+     * @param className 生成的类名，类在默认包中
+     */
+    public String generate(String className){
+        int T = grammar.terminalCount();
+        StringBuilder sb = new StringBuilder();
+
+        sb.append("/**\n");
+        sb.append(" * 由ParserGenerator根据LL1文法生成的递归下降分析器，不要手工修改\n");
+        sb.append(" * 开始符号为 ").append(grammar.name(grammar.getStart())).append('\n');
+        sb.append(" */\n");
+        sb.append("public class ").append(className).append(" {\n\n");
+
+        // 符号的名字，只在出错时使用
+        sb.append("    private static final String[] NAMES = {");
+        for (int s=0; s<grammar.symbolCount(); s++){
+            sb.append(s == 0 ? "" : ", ").append(literal(grammar.name(s)));
+        }
+        sb.append("};\n");
+        sb.append("    private static final int END = ").append(grammar.getEnd()).append(";\n\n");
+
+        sb.append("    private final int[] input;\n");
+        sb.append("    private final int length;\n");
+        sb.append("    private int position;\n");
+        sb.append("    // 当前输入符号\n");
+        sb.append("    private int c;\n");
+        sb.append("    // 使用产生式的次数\n");
+        sb.append("    private int count;\n\n");
+
+        sb.append("    private ").append(className).append("(int[] input, int length){\n");
+        sb.append("        this.input = input;\n");
+        sb.append("        this.length = length;\n");
+        sb.append("        this.c = length > 0 ? input[0] : END;\n");
+        sb.append("    }\n\n");
+
+        sb.append("    // 分析终结符编号序列，返回使用产生式的次数\n");
+        sb.append("    public static int parse(int[] input, int length){\n");
+        sb.append("        ").append(className).append(" parser = new ").append(className).append("(input, length);\n");
+        sb.append("        parser.").append(method(grammar.getStart())).append("();\n");
+        sb.append("        parser.expect(END);\n");
+        sb.append("        return parser.count;\n");
+        sb.append("    }\n\n");
+
+        sb.append("    // 匹配一个终结符并读入下一个符号\n");
+        sb.append("    private void expect(int terminal){\n");
+        sb.append("        if (c != terminal){\n");
+        sb.append("            throw error(terminal);\n");
+        sb.append("        }\n");
+        sb.append("        position++;\n");
+        sb.append("        c = position < length ? input[position] : END;\n");
+        sb.append("    }\n\n");
+
+        sb.append("    private IllegalArgumentException error(int top){\n");
+        sb.append("        return new IllegalArgumentException(\"ERROR:分析出错! 第\" + position + \"个单词 \" + NAMES[c]\n");
+        sb.append("                + \" 处栈顶符号为 \" + NAMES[top]);\n");
+        sb.append("    }\n");
+
+        for (int A=T; A<grammar.symbolCount(); A++){
+            generateMethod(sb, A);
+        }
+
+        sb.append("}\n");
+        return sb.toString();
+    }
+
+    // 生成一个非终结符的方法
+    private void generateMethod(StringBuilder sb, int A){
+        int T = grammar.terminalCount();
+
+        // 按产生式把终结符分组，每组是switch的一个分支
+        Map<Integer, List<Integer>> cases = new LinkedHashMap<>();
+        for (int t=0; t<T; t++){
+            int p = table.production(A, t);
+            if (p != LL1Table.ERROR){
+                cases.computeIfAbsent(p, k -> new ArrayList<>()).add(t);
+            }
+        }
+
+        // 有产生式以自己结尾时，整个方法放在循环中
+        boolean loop = false;
+        for (int p : cases.keySet()){
+            int[] right = grammar.rhs(p);
+            loop |= right.length > 0 && right[right.length - 1] == A;
+        }
+
+        sb.append('\n');
+        for (int p : grammar.productionsOf(A)){
+            sb.append("    // ").append(grammar.productionName(p)).append('\n');
+        }
+        sb.append("    private void ").append(method(A)).append("(){\n");
+        String indent = "        ";
+        if (loop){
+            sb.append("        while (true){\n");
+            indent = "            ";
+        }
+        sb.append(indent).append("switch (c){\n");
+        for (Map.Entry<Integer, List<Integer>> entry : cases.entrySet()){
+            int p = entry.getKey();
+            for (int t : entry.getValue()){
+                sb.append(indent).append("    case ").append(t).append(": // ").append(grammar.name(t)).append('\n');
+            }
+            String body = indent + "        ";
+            sb.append(body).append("count++;\n");
+            int[] right = grammar.rhs(p);
+            boolean tail = right.length > 0 && right[right.length - 1] == A;
+            int n = tail ? right.length - 1 : right.length;
+            for (int i=0; i<n; i++){
+                if (grammar.isTerminal(right[i])){
+                    sb.append(body).append("expect(").append(right[i]).append(");\n");
+                } else{
+                    sb.append(body).append(method(right[i])).append("();\n");
+                }
+            }
+            sb.append(body).append(tail ? "continue;\n" : "return;\n");
+        }
+        sb.append(indent).append("    default:\n");
+        sb.append(indent).append("        throw error(").append(A).append(");\n");
+        sb.append(indent).append("}\n");
+        if (loop){
+            sb.append("        }\n");
+        }
+        sb.append("    }\n");
+    }
+
+    // 把生成的源程序写到目录dir中，返回文件的路径
+    public Path write(Path dir, String className){
+        Path file = dir.resolve(className + ".java");
+        try{
+            Files.createDirectories(dir);
+            Files.write(file, generate(className).getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e){
+            throw new UncheckedIOException(e);
+        }
+        return file;
+    }
+
+    public static void main(String[] args) {
+        ParserGenerator generator = new ParserGenerator(ParserBenchmark.expressionGrammar());
+        System.out.print(generator.generate("ExpressionParser"));
+    }
+}
@@ -0,0 +1,89 @@
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+/**
+ * @Description PL/0的前端流水线：词法分析器识别出一个单词，就直接把种别码交给编译好的预测分析器
+ * 源程序只扫描一遍，不保存单词序列，分析器的文法和分析表只在构造时生成一次
+ * @Author Jianlong
+ * @Date 2026-10-17 下午 23:55
+ */
+public class Pipeline {
+
+    private final KeywordTable keywords;
+    private final CompiledLL1Parser parser;
+
+    public Pipeline(){
+        this.keywords = PL0Grammar.keywords();
+        this.parser = new CompiledLL1Parser(PL0Grammar.grammar(), PL0Grammar.terminals());
+    }
+
+    public CompiledLL1Parser getParser() {
+        return parser;
+    }
+
+    // 分析一个PL/0源程序，返回使用产生式的次数，出错时抛出IllegalArgumentException
+    public int parse(Reader source){
+        return parse(source, ParseTracer.NONE);
+    }
+
+    public int parse(Reader source, ParseTracer tracer){
+        StreamLexicalAnalysis lexer = new StreamLexicalAnalysis(source, 8192, keywords);
+        return parser.parse(lexer.tokens(), tracer);
+    }
+
+    /**
+     * 分析源程序并构造语法树，单词保存在tokens中，语法树的叶子结点记录单词的下标
+     */
+    public SyntaxTree parseTree(char[] source, TokenBuffer tokens){
+        new DFAScanner(keywords).tokenize(source, tokens);
+        return parser.parseTree(tokens);
+    }
+
+    public static void main(String[] args) throws IOException {
+        String path = args.length > 0 ? args[0] : "./src/source.txt";
+        Pipeline pipeline = new Pipeline();
+
+        try(FileInputStream in = new FileInputStream(path);
+            FileChannel channel = in.getChannel()){
+            int productions = pipeline.parse(Channels.newReader(channel, StandardCharsets.UTF_8));
+            System.out.println(path + " 分析成功，使用产生式: " + productions);
+        }
+
+        char[] source = new String(Files.readAllBytes(Paths.get(path)), StandardCharsets.UTF_8).toCharArray();
+        TokenBuffer tokens = new TokenBuffer();
+        SyntaxTree tree = pipeline.parseTree(source, tokens);
+        System.out.println("单词数: " + tokens.size() + ", 语法树结点数: " + tree.size());
+
+        try{
+            pipeline.parse(new StringReader("var a; begin a := 1 + ; end."));
+        } catch (IllegalArgumentException e){
+            System.out.println("错误的程序: " + e.getMessage());
+        }
+
+        // 大程序的分析速度
+        StringBuilder sb = new StringBuilder("const m = 7, n = 85;\nvar x, y, z, q, r;\n");
+        sb.append("procedure gcd;\nvar f, g;\nbegin f := x; g := y;\n");
+        sb.append("  while f # g do begin if f < g then g := g - f; if g < f then f := f - g end;\n  z := f\nend;\n");
+        sb.append("begin\n");
+        while (sb.length() < 4 * 1024 * 1024){
+            sb.append("  x := m * (n + 3) / 2; y := -x + 17; read(x, y); call gcd; write(z, x + y);\n");
+            sb.append("  if odd x then while x >= 10 do x := x - 1;\n");
+        }
+        sb.append("end.\n");
+        String program = sb.toString();
+        for (int round=0; round<5; round++){
+            long start = System.nanoTime();
+            int productions = pipeline.parse(new StringReader(program));
+            double seconds = (System.nanoTime() - start) / 1e9;
+            System.out.printf("源程序 %d 个字符, 使用产生式 %d, 耗时 %.2f ms, 每秒 %.1f MB%n",
+                    program.length(), productions, seconds * 1000, program.length() / seconds / 1e6);
+        }
+    }
+}
@@ -0,0 +1,127 @@
+import java.util.Arrays;
+
+/**
+ * @Description 用Tarjan算法求有向图的强连通分量，非递归实现，很大的图也不会栈溢出
+ * 分量按完成的先后编号：若有边u->v且u、v不在同一分量，则v所在分量的编号小于u所在分量的编号，
+ * 所以按编号从小到大处理分量时，每个分量的后继都已经处理过了
+ * @Author Jianlong
+ * @Date 2026-10-17 下午 19:20
+ */
+public class SCC {
+
+    // 每个结点所在分量的编号，没有访问到的结点为-1
+    private final int[] component;
+    // 每个分量包含的结点
+    private final int[][] members;
+
+    // 求整个图的强连通分量
+    public SCC(int[][] successors){
+        this(successors, null);
+    }
+
+    /**
+     * 只求从roots出发能到达的结点的强连通分量
+     * @param successors 每个结点的后继
+     * @param roots 出发的结点，为null时从所有结点出发
+     */
+    public SCC(int[][] successors, int[] roots){
+        int n = successors.length;
+        int[] index = new int[n];
+        int[] low = new int[n];
+        boolean[] onStack = new boolean[n];
+        Arrays.fill(index, -1);
+        this.component = new int[n];
+        Arrays.fill(component, -1);
+
+        // Tarjan算法的结点栈
+        int[] stack = new int[n];
+        int sp = 0;
+        // 模拟递归的调用栈：当前结点和下一条要访问的边
+        int[] callNode = new int[n];
+        int[] callEdge = new int[n];
+        int depth = 0;
+
+        int counter = 0;
+        int count = 0;
+        int[] sizes = new int[n];
+
+        int rootCount = roots == null ? n : roots.length;
+        for (int r=0; r<rootCount; r++){
+            int root = roots == null ? r : roots[r];
+            if (index[root] != -1){
+                continue;
+            }
+
+            index[root] = low[root] = counter++;
+            stack[sp++] = root;
+            onStack[root] = true;
+            callNode[0] = root;
+            callEdge[0] = 0;
+            depth = 1;
+
+            while (depth > 0){
+                int v = callNode[depth - 1];
+                int e = callEdge[depth - 1];
+                if (e < successors[v].length){
+                    callEdge[depth - 1]++;
+                    int w = successors[v][e];
+                    if (index[w] == -1){
+                        // 相当于递归访问w
+                        index[w] = low[w] = counter++;
+                        stack[sp++] = w;
+                        onStack[w] = true;
+                        callNode[depth] = w;
+                        callEdge[depth] = 0;
+                        depth++;
+                    } else if (onStack[w]){
+                        low[v] = Math.min(low[v], index[w]);
+                    }
+                    continue;
+                }
+
+                // v的边都访问完了，v是分量的根时弹出整个分量
+                if (low[v] == index[v]){
+                    int w;
+                    do{
+                        w = stack[--sp];
+                        onStack[w] = false;
+                        component[w] = count;
+                        sizes[count]++;
+                    } while (w != v);
+                    count++;
+                }
+                depth--;
+                if (depth > 0){
+                    int u = callNode[depth - 1];
+                    low[u] = Math.min(low[u], low[v]);
+                }
+            }
+        }
+
+        this.members = new int[count][];
+        for (int c=0; c<count; c++){
+            members[c] = new int[sizes[c]];
+            sizes[c] = 0;
+        }
+        for (int v=0; v<n; v++){
+            int c = component[v];
+            if (c >= 0){
+                members[c][sizes[c]++] = v;
+            }
+        }
+    }
+
+    // 分量的个数
+    public int count(){
+        return members.length;
+    }
+
+    public int component(int v){
+        return component[v];
+    }
+
+    // 分量包含的结点，调用者不能修改返回的数组
+    public int[] members(int c){
+        return members[c];
+    }
+}
@@ -0,0 +1,260 @@
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * @Description 流式词法分析器，分块读入源程序，内存占用与源程序大小无关
+ * @Author Jianlong
+ * @Date 2026-10-17 上午 10:12
+ */
+public class StreamLexicalAnalysis {
+
+    // 默认每次读入的块大小
+    private static final int CHUNK_SIZE = 8192;
+    // 读到文件末尾时peek返回的值
+    private static final int EOF = -1;
+
+    // 输入流
+    private final Reader reader;
+    // 缓冲区，只保存还没有处理完的那一段源程序
+    private char[] buffer;
+    // 当前扫描的位置
+    private int pos;
+    // 缓冲区中有效字符的个数
+    private int limit;
+    // 当前单词的起始位置，重新填充缓冲区时从这里开始保留
+    private int mark;
+    // 输入流是否已经读完
+    private boolean eof;
+    // 是否已经识别出程序结束标志'.'
+    private boolean finished;
+    // 关键字和运算符和界符表
+    private final Map<String, Integer> keyWords;
+    // 保留字的散列表
+    private final KeywordTable keywordTable;
+
+    public StreamLexicalAnalysis(Reader reader){
+        this(reader, CHUNK_SIZE);
+    }
+
+    public StreamLexicalAnalysis(Reader reader, int chunkSize){
+        this(reader, chunkSize, KeywordTable.pl0());
+    }
+
+    public StreamLexicalAnalysis(Reader reader, int chunkSize, KeywordTable keywordTable){
+        if (chunkSize < 2){
+            throw new IllegalArgumentException("块大小至少为2!");
+        }
+        this.reader = reader;
+        this.buffer = new char[chunkSize];
+        this.keywordTable = keywordTable;
+        this.keyWords = new LexicalAnalysis(keywordTable).keyWords;
+    }
+
+    // 从字节通道读入（按UTF-8解码）
+    public StreamLexicalAnalysis(ReadableByteChannel channel){
+        this(Channels.newReader(channel, StandardCharsets.UTF_8), CHUNK_SIZE);
+    }
+
+    // 重新填充缓冲区，把mark之前已经处理完的字符丢掉
+    private boolean refill() throws IOException{
+        if (eof){
+            return false;
+        }
+        // 把还没处理完的部分（跨越块边界的单词或注释）移到缓冲区开头
+        if (mark > 0){
+            System.arraycopy(buffer, mark, buffer, 0, limit - mark);
+            limit -= mark;
+            pos -= mark;
+            mark = 0;
+        }
+        // 只有单个单词比缓冲区还长时才需要扩容
+        if (limit == buffer.length){
+            char[] temp = new char[buffer.length * 2];
+            System.arraycopy(buffer, 0, temp, 0, limit);
+            buffer = temp;
+        }
+        int n = reader.read(buffer, limit, buffer.length - limit);
+        if (n == -1){
+            eof = true;
+            return false;
+        }
+        limit += n;
+        return true;
+    }
+
+    // 查看当前位置之后第k个字符，不移动指针
+    private int peek(int k) throws IOException{
+        while (pos + k >= limit){
+            if (!refill()){
+                return EOF;
+            }
+        }
+        return buffer[pos + k];
+    }
+
+    // 跳过空白符和注释
+    private void skipBlank() throws IOException{
+        while (true){
+            mark = pos;
+            int c = peek(0);
+            switch (c){
+                case ' ':
+                case '\n':
+                case '\t':
+                case '\r':
+                    pos++;
+                    break;
+                case '/':
+                    // 单行注释，跳到行尾
+                    if (peek(1) != '/'){
+                        return;
+                    }
+                    pos += 2;
+                    mark = pos;
+                    while ((c = peek(0)) != '\n' && c != EOF){
+                        pos++;
+                        mark = pos;
+                    }
+                    break;
+                case '(':
+                    // 多行注释，跳到'*)'
+                    if (peek(1) != '*'){
+                        return;
+                    }
+                    pos += 2;
+                    mark = pos;
+                    while (!(peek(0) == '*' && peek(1) == ')')){
+                        if (peek(0) == EOF){
+                            throw new IllegalArgumentException("源程序的注释不匹配!");
+                        }
+                        pos++;
+                        mark = pos;
+                    }
+                    pos += 2;
+                    break;
+                default:
+                    return;
+            }
+        }
+    }
+
+    // 识别下一个单词符号，输入结束时返回null
+    public LexicalAnalysis.Token next() throws IOException{
+        if (finished){
+            return null;
+        }
+
+        skipBlank();
+        mark = pos;
+        int c = peek(0);
+
+        if (c == EOF){
+            finished = true;
+            return null;
+        }
+
+        // 字母开头，保留字或标识符
+        if (Character.isLetter(c)){
+            while ((c = peek(0)) != EOF && (Character.isLetter(c) || Character.isDigit(c))){
+                pos++;
+            }
+            return new LexicalAnalysis.Token(new String(buffer, mark, pos - mark), keywordTable.lookup(buffer, mark, pos - mark));
+        }
+        // 数字开头，常数
+        if (Character.isDigit(c)){
+            while ((c = peek(0)) != EOF && Character.isDigit(c)){
+                pos++;
+            }
+            return new LexicalAnalysis.Token(new String(buffer, mark, pos - mark), 13);
+        }
+
+        switch (c){
+            case ':':
+            case '<':
+            case '>':
+                int next = peek(1);
+                if (next == '=' || (c == '<' && next == '>')){
+                    String value = new String(buffer, pos, 2);
+                    pos += 2;
+                    return new LexicalAnalysis.Token(value, keyWords.get(value));
+                }
+                pos++;
+                return new LexicalAnalysis.Token(String.valueOf((char) c), keyWords.get(String.valueOf((char) c)));
+            case '+':
+            case '-':
+            case '*':
+            case '/':
+            case '=':
+            case '#':
+            case ',':
+            case ';':
+            case '(':
+            case ')':
+                pos++;
+                return new LexicalAnalysis.Token(String.valueOf((char) c), keyWords.get(String.valueOf((char) c)));
+            case '.':
+                // 程序结束标志，之后的内容不再分析
+                pos++;
+                finished = true;
+                return new LexicalAnalysis.Token(".", 0);
+            default:
+                // 非法字符，跳过它以免死循环
+                pos++;
+                return new LexicalAnalysis.Token(String.valueOf((char) c), -1);
+        }
+    }
+
+    // 以迭代器的形式逐个取出单词，读入出错时抛出UncheckedIOException
+    public Iterator<LexicalAnalysis.Token> tokens(){
+        return new Iterator<LexicalAnalysis.Token>() {
+            // 已经读入但还没有取走的单词
+            private LexicalAnalysis.Token token;
+
+            @Override
+            public boolean hasNext() {
+                if (token == null && !finished){
+                    try{
+                        token = StreamLexicalAnalysis.this.next();
+                    } catch (IOException e){
+                        throw new UncheckedIOException(e);
+                    }
+                }
+                return token != null;
+            }
+
+            @Override
+            public LexicalAnalysis.Token next() {
+                if (!hasNext()){
+                    throw new NoSuchElementException();
+                }
+                LexicalAnalysis.Token result = token;
+                token = null;
+                return result;
+            }
+        };
+    }
+
+    public static void main(String[] args) {
+        String path = args.length > 0 ? args[0] : "./src/source.txt";
+        try(FileInputStream in = new FileInputStream(path);
+            ReadableByteChannel channel = in.getChannel()){
+            StreamLexicalAnalysis sla = new StreamLexicalAnalysis(channel);
+
+            System.out.println("识别出的单词有：");
+            LexicalAnalysis.Token token;
+            while ((token = sla.next()) != null){
+                System.out.println(token);
+            }
+        } catch (IOException e){
+            e.printStackTrace();
+        }
+    }
+}
@@ -0,0 +1,212 @@
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * @Description 标识符表，把每个不同的标识符映射为一个连续的整数编号
+ * @Author Jianlong
+ * @Date 2026-10-17 下午 14:50
+ */
+public class SymbolTable {
+
+    // 开放定址的散列表，存储 编号+1，0表示空槽
+    private int[] slots;
+    // 每个标识符的散列值，扩容时不用重新计算
+    private int[] hashes;
+    // 所有标识符的字符依次存放在一起
+    private char[] chars;
+    // 第i个标识符在chars中的起始位置为offsets[i]，结束位置为offsets[i+1]
+    private int[] offsets;
+    // 标识符个数
+    private int count;
+
+    public SymbolTable(){
+        this(64);
+    }
+
+    public SymbolTable(int capacity){
+        int size = Integer.highestOneBit(Math.max(capacity, 8) * 2 - 1);
+        this.slots = new int[size * 2];
+        this.hashes = new int[size];
+        this.chars = new char[size * 8];
+        this.offsets = new int[size + 1];
+    }
+
+    private static int hash(char[] source, int start, int length){
+        int h = 0;
+        for (int i=start; i<start+length; i++){
+            h = 31 * h + source[i];
+        }
+        // 打散低位，因为槽位下标只取低位
+        return h ^ (h >>> 16);
+    }
+
+    // 字节版本的散列函数，对ASCII字节与字符版本的结果相同
+    private static int hash(ByteBuffer source, int start, int length){
+        int h = 0;
+        for (int i=start; i<start+length; i++){
+            h = 31 * h + (source.get(i) & 0xFF);
+        }
+        return h ^ (h >>> 16);
+    }
+
+    // 判断编号为id的标识符是否和source[start, start+length)相同
+    private boolean matches(int id, char[] source, int start, int length){
+        int from = offsets[id];
+        if (offsets[id + 1] - from != length){
+            return false;
+        }
+        for (int i=0; i<length; i++){
+            if (chars[from + i] != source[start + i]){
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean matches(int id, ByteBuffer source, int start, int length){
+        int from = offsets[id];
+        if (offsets[id + 1] - from != length){
+            return false;
+        }
+        for (int i=0; i<length; i++){
+            if (chars[from + i] != (source.get(start + i) & 0xFF)){
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 查找标识符的编号，不存在时返回-1
+     */
+    public int find(char[] source, int start, int length){
+        int h = hash(source, start, length);
+        int mask = slots.length - 1;
+        for (int i = h & mask; ; i = (i + 1) & mask){
+            int id = slots[i] - 1;
+            if (id < 0){
+                return -1;
+            }
+            if (hashes[id] == h && matches(id, source, start, length)){
+                return id;
+            }
+        }
+    }
+
+    /**
+     * 查找标识符的编号，不存在时加入并分配新的编号
+     * 编号从0开始连续分配，后续阶段可以直接用编号作为数组下标
+     */
+    public int intern(char[] source, int start, int length){
+        int h = hash(source, start, length);
+        int mask = slots.length - 1;
+        int i = h & mask;
+        for (; ; i = (i + 1) & mask){
+            int id = slots[i] - 1;
+            if (id < 0){
+                break;
+            }
+            if (hashes[id] == h && matches(id, source, start, length)){
+                return id;
+            }
+        }
+
+        // 新的标识符
+        int id = add(h, i, length);
+        System.arraycopy(source, start, chars, offsets[id], length);
+        return id;
+    }
+
+    // 在字节上查找或加入标识符，标识符只由ASCII字母和数字组成，逐字节转换为字符
+    public int intern(ByteBuffer source, int start, int length){
+        int h = hash(source, start, length);
+        int mask = slots.length - 1;
+        int i = h & mask;
+        for (; ; i = (i + 1) & mask){
+            int id = slots[i] - 1;
+            if (id < 0){
+                break;
+            }
+            if (hashes[id] == h && matches(id, source, start, length)){
+                return id;
+            }
+        }
+
+        int id = add(h, i, length);
+        int from = offsets[id];
+        for (int j=0; j<length; j++){
+            chars[from + j] = (char) (source.get(start + j) & 0xFF);
+        }
+        return id;
+    }
+
+    // 分配新的编号并在槽位slot登记，为标识符预留length个字符的空间
+    private int add(int h, int slot, int length){
+        int id = count;
+        if (id == hashes.length){
+            hashes = Arrays.copyOf(hashes, id * 2);
+            offsets = Arrays.copyOf(offsets, id * 2 + 1);
+        }
+        int from = offsets[id];
+        if (from + length > chars.length){
+            chars = Arrays.copyOf(chars, Math.max(chars.length * 2, from + length));
+        }
+        offsets[id + 1] = from + length;
+        hashes[id] = h;
+        slots[slot] = id + 1;
+        count++;
+
+        // 装填因子超过一半时扩容
+        if (count * 2 > slots.length){
+            rehash();
+        }
+        return id;
+    }
+
+    public int intern(String name){
+        return intern(name.toCharArray(), 0, name.length());
+    }
+
+    private void rehash(){
+        int[] temp = new int[slots.length * 2];
+        int mask = temp.length - 1;
+        for (int id=0; id<count; id++){
+            int i = hashes[id] & mask;
+            while (temp[i] != 0){
+                i = (i + 1) & mask;
+            }
+            temp[i] = id + 1;
+        }
+        slots = temp;
+    }
+
+    // 取出编号对应的标识符
+    public String name(int id){
+        return new String(chars, offsets[id], offsets[id + 1] - offsets[id]);
+    }
+
+    public int size(){
+        return count;
+    }
+
+    public static void main(String[] args) {
+        char[] source = "var n, f; begin n := 0; f := 1; while n # 10 do begin n := n + 1; f := f * n end end.".toCharArray();
+
+        TokenBuffer tokens = new TokenBuffer();
+        SymbolTable symbols = new SymbolTable();
+        new DFAScanner().tokenize(source, tokens, symbols);
+
+        System.out.println("标识符表：");
+        for (int id=0; id<symbols.size(); id++){
+            System.out.println(id + ": " + symbols.name(id));
+        }
+
+        System.out.println("单词中的标识符编号：");
+        for (int i=0; i<tokens.size(); i++){
+            if (tokens.symbol(i) >= 0){
+                System.out.print(tokens.text(i) + "=" + tokens.symbol(i) + " ");
+            }
+        }
+        System.out.println();
+    }
+}
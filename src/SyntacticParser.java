@@ -9,28 +9,51 @@ public class SyntacticParser {
 
     // 分析表
     private Map<String, String> analysisTable;
+    // 产生式的写法到编码后产生式编号的映射
+    private Map<String, Integer> productions;
+    // 编码后的分析表，compiled模式下使用
+    private LL1Table table;
 
     // 构造函数，输入一个LL1文法和符号串，进行语法分析
     public SyntacticParser(Grammar G, List<String> str){
+        this(G, str, false);
+    }
+
+    // 分析过程输出到System.out
+    public SyntacticParser(Grammar G, List<String> str, boolean compiled){
+        this(G, str, compiled, new TextParseTracer(G.getCompiled(), System.out));
+    }
+
+    /**
+     * 输入一个LL1文法和符号串，进行语法分析
+     * @param compiled 为true时使用编码后的二维分析表，每一步只需要查两次数组，不需要拼接和拆分字符串
+     * @param tracer 跟踪分析过程，为ParseTracer.NONE时不输出任何内容
+     */
+    public SyntacticParser(Grammar G, List<String> str, boolean compiled, ParseTracer tracer){
 
         LL1Analysis myLL1 = new LL1Analysis(G);
 
         // 如果文法是LL1文法的话，继续进行语法分析
         if (myLL1.isLL1()){
-            // 获取SELECT集合，准备构建预测分析表
-            Map<String, Set<String>> SELECT = myLL1.getSELECT();
             // 构造分析表
-            createTable(SELECT);
-
-            System.out.println("开始使用预测分析法进行语法分析:");
-            System.out.println("输入的符号串为: ");
-
-            for (String c : str){
-                System.out.print(c+" ");
+            if (compiled){
+                this.table = new LL1Table(myLL1.getSets());
+            } else{
+                // 获取SELECT集合，准备构建预测分析表
+                Map<String, Set<String>> SELECT = myLL1.getSELECT();
+                createTable(G, SELECT);
             }
-            System.out.println();
 
-            predictAnalysis(G, str);
+            try{
+                if (compiled){
+                    predictAnalysis(table, str, tracer);
+                } else{
+                    predictAnalysis(G, str, tracer);
+                }
+            } finally{
+                // 没有分析成功也没有在查表时出错就结束的，缓冲区中的分析过程也要输出
+                tracer.flush();
+            }
         }
         // 否则报错
         else{
@@ -42,10 +65,20 @@ public class SyntacticParser {
         return analysisTable;
     }
 
+    public LL1Table getTable() {
+        return table;
+    }
+
     // 创建分析表
-    private void createTable(Map<String, Set<String>> SELECT){
+    private void createTable(Grammar grammar, Map<String, Set<String>> SELECT){
 
         this.analysisTable = new HashMap<>();
+        this.productions = new HashMap<>();
+
+        CompiledGrammar g = grammar.getCompiled();
+        for (int p=0; p<g.productionCount(); p++){
+            this.productions.put(g.productionName(p), p);
+        }
 
         // 遍历SELECT集合
         for (Map.Entry<String, Set<String>> entry : SELECT.entrySet()){
@@ -57,7 +90,9 @@ public class SyntacticParser {
     }
 
     // 预测分析方法
-    private void predictAnalysis(Grammar grammar, List<String> str){
+    private void predictAnalysis(Grammar grammar, List<String> str, ParseTracer tracer){
+        CompiledGrammar g = grammar.getCompiled();
+        tracer.begin(encode(g, str));
         // 分析栈
         Stack<String> analysisStack = new Stack<>();
         // 首先放入界符
@@ -65,55 +100,129 @@ public class SyntacticParser {
         // 放入开始符号
         analysisStack.push(grammar.getStart());
 
-        System.out.println("初始状态：放入左界符和开始符号...");
-
-        for (int i=0; i<str.size(); i++){
+        for (int i=0, step=0; i<str.size(); i++, step++){
             String x = analysisStack.peek();
             String c = str.get(i);
 
-            System.out.println("栈顶符号为"+x+", 指针指向输入串的符号为"+c);
+            tracer.step(step, g.id(x), g.id(c));
 
             // 如果栈顶是终结符
-            if (grammar.getEndChars().contains(x) || x.equals("#")){
-                if (c.equals("#") && c.equals(x)){
-                    System.out.println("分析成功!");
+            if (g.isTerminal(g.id(x))){
+                // 栈顶终结符与当前输入符号不同
+                if (!c.equals(x)){
+                    tracer.error(step, g.id(x), g.id(c), i);
+                    throw new IllegalArgumentException("ERROR:分析出错!");
                 }
-                else{
-                    System.out.println("符号匹配，出栈，指针指向下一个符号");
-                    analysisStack.pop();
+                if (c.equals("#")){
+                    tracer.accept(step);
+                    return;
                 }
+                tracer.match(step, g.id(x), i);
+                analysisStack.pop();
             }
             else{
 
-                System.out.println("寻找对应产生式进行规约...");
                 String production = this.analysisTable.get(x+c);
 
                 if (production != null){
 
-                    System.out.println("找到了产生式 "+production);
+                    int p = this.productions.get(production);
+                    tracer.production(step, g.id(x), p);
 
                     analysisStack.pop();
-                    String right = production.split("->")[1].trim();
-                    List<String> rightChars = grammar.disassemble(right);
+                    // 空产生式的右部长度为0，不入栈
+                    int[] right = g.rhs(p);
 
-                    for (int j=rightChars.size()-1; j>=0; j--){
+                    for (int j=right.length-1; j>=0; j--){
+                        analysisStack.push(g.name(right[j]));
+                    }
+                    i--;
+                }
+                else{
+                    tracer.error(step, g.id(x), g.id(c), i);
+                    throw new IllegalArgumentException("ERROR:分析出错!");
+                }
+            }
+        }
+        // 输入串读完了还没有分析成功
+        throw new IllegalArgumentException("ERROR:分析出错! 输入串没有以#结束");
+    }
 
-                        String tempChar = rightChars.get(j);
+    // 把输入串编码为终结符编号
+    private static int[] encode(CompiledGrammar g, List<String> str){
+        int[] input = new int[str.size()];
+        for (int i=0; i<input.length; i++){
+            input[i] = g.id(str.get(i));
+            if (input[i] < 0 || !g.isTerminal(input[i])){
+                throw new IllegalArgumentException("ERROR:输入串中有未定义的终结符 " + str.get(i));
+            }
+        }
+        return input;
+    }
+
+    // 使用编码后的分析表进行预测分析，栈中存放符号编号
+    private void predictAnalysis(LL1Table table, List<String> str, ParseTracer tracer){
+        CompiledGrammar g = table.getGrammar();
+
+        // 输入串先编码为终结符编号
+        int[] input = encode(g, str);
+        tracer.begin(input);
+
+        // 分析栈
+        int[] analysisStack = new int[16];
+        int top = 0;
+        // 首先放入界符
+        analysisStack[top++] = g.getEnd();
+        // 放入开始符号
+        analysisStack[top++] = g.getStart();
+
+        for (int i=0, step=0; i<input.length; i++, step++){
+            int x = analysisStack[top - 1];
+            int c = input[i];
+
+            tracer.step(step, x, c);
+
+            // 如果栈顶是终结符
+            if (g.isTerminal(x)){
+                // 栈顶终结符与当前输入符号不同
+                if (x != c){
+                    tracer.error(step, x, c, i);
+                    throw new IllegalArgumentException("ERROR:分析出错!");
+                }
+                if (x == g.getEnd()){
+                    tracer.accept(step);
+                    return;
+                }
+                tracer.match(step, x, i);
+                top--;
+            }
+            else{
 
-                        // 如果是空串，就不入栈
-                        if (tempChar.equals("NULL")){
-                            continue;
-                        }
-                        analysisStack.push(tempChar);
+                int production = table.production(x, c);
+
+                if (production != LL1Table.ERROR){
+
+                    tracer.production(step, x, production);
+
+                    top--;
+                    // 空产生式的右部长度为0，不入栈
+                    int[] right = table.rhs(production);
+                    if (top + right.length > analysisStack.length){
+                        analysisStack = Arrays.copyOf(analysisStack, Math.max(analysisStack.length * 2, top + right.length));
+                    }
+                    for (int j=right.length-1; j>=0; j--){
+                        analysisStack[top++] = right[j];
                     }
                     i--;
                 }
                 else{
-                    System.out.println("未找到产生式...");
+                    tracer.error(step, x, c, i);
                     throw new IllegalArgumentException("ERROR:分析出错!");
                 }
             }
         }
+        // 输入串读完了还没有分析成功
+        throw new IllegalArgumentException("ERROR:分析出错! 输入串没有以#结束");
     }
 
     public static void main(String[] args) {
@@ -141,6 +250,12 @@ public class SyntacticParser {
         inputStr.add("b");
         inputStr.add("#");
 
-        SyntacticParser myParser = new SyntacticParser(new Grammar(Vn, Vt, P, S), inputStr);
+        Grammar grammar = new Grammar(Vn, Vt, P, S);
+        grammar.printGrammar();
+
+        SyntacticParser myParser = new SyntacticParser(grammar, inputStr);
+
+        // 使用编码后的分析表再分析一遍
+        SyntacticParser compiledParser = new SyntacticParser(grammar, inputStr, true);
     }
 }
@@ -0,0 +1,152 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+
+/**
+ * @Description 语法树，所有结点存放在几个并列的int数组中，不为每个结点创建对象
+ * 结点用下标表示，根结点是0；孩子用 第一个孩子/下一个兄弟 的方式链接，没有时为-1
+ * @Author Jianlong
+ * @Date 2026-10-17 下午 23:40
+ */
+public class SyntaxTree {
+
+    // 没有孩子、兄弟或单词时的值
+    public static final int NONE = -1;
+
+    private final CompiledGrammar grammar;
+    // 结点的符号编号
+    private int[] kind;
+    // 第一个孩子
+    private int[] firstChild;
+    // 下一个兄弟
+    private int[] nextSibling;
+    // 终结符结点对应的单词下标，非终结符结点为-1
+    private int[] token;
+    // 结点个数
+    private int size;
+
+    public SyntaxTree(CompiledGrammar grammar){
+        this(grammar, 1024);
+    }
+
+    public SyntaxTree(CompiledGrammar grammar, int capacity){
+        this.grammar = grammar;
+        capacity = Math.max(capacity, 16);
+        this.kind = new int[capacity];
+        this.firstChild = new int[capacity];
+        this.nextSibling = new int[capacity];
+        this.token = new int[capacity];
+    }
+
+    // 加入一个结点，返回它的下标，容量不够时翻倍扩容
+    int add(int kind){
+        if (size == this.kind.length){
+            int capacity = size * 2;
+            this.kind = Arrays.copyOf(this.kind, capacity);
+            this.firstChild = Arrays.copyOf(this.firstChild, capacity);
+            this.nextSibling = Arrays.copyOf(this.nextSibling, capacity);
+            this.token = Arrays.copyOf(this.token, capacity);
+        }
+        this.kind[size] = kind;
+        this.firstChild[size] = NONE;
+        this.nextSibling[size] = NONE;
+        this.token[size] = NONE;
+        return size++;
+    }
+
+    void setFirstChild(int node, int child){
+        firstChild[node] = child;
+    }
+
+    void setNextSibling(int node, int sibling){
+        nextSibling[node] = sibling;
+    }
+
+    void setToken(int node, int index){
+        token[node] = index;
+    }
+
+    public CompiledGrammar getGrammar() {
+        return grammar;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int root(){
+        return 0;
+    }
+
+    public int kind(int node){
+        return kind[node];
+    }
+
+    public int firstChild(int node){
+        return firstChild[node];
+    }
+
+    public int nextSibling(int node){
+        return nextSibling[node];
+    }
+
+    public int token(int node){
+        return token[node];
+    }
+
+    public boolean isLeaf(int node){
+        return firstChild[node] == NONE;
+    }
+
+    /**
+     * 按缩进的形式输出语法树，终结符结点后面是单词的值
+     * 用数组模拟递归，树很深时也不会栈溢出
+     * @param tokens 分析时使用的单词，为null时不输出单词的值
+     */
+    public void print(Appendable out, TokenBuffer tokens){
+        if (size == 0){
+            return;
+        }
+        int[] stack = new int[64];
+        int[] depth = new int[64];
+        int top = 0;
+        stack[top] = root();
+        depth[top++] = 0;
+        StringBuilder line = new StringBuilder();
+        try{
+            while (top > 0){
+                top--;
+                int node = stack[top];
+                int d = depth[top];
+                line.setLength(0);
+                for (int i=0; i<d; i++){
+                    line.append("  ");
+                }
+                line.append(grammar.name(kind[node]));
+                if (token[node] != NONE && tokens != null){
+                    line.append("  ").append(tokens.text(token[node]));
+                }
+                out.append(line).append('\n');
+
+                // 孩子倒序入栈，先输出第一个孩子
+                int count = 0;
+                for (int child=firstChild[node]; child!=NONE; child=nextSibling[child]){
+                    count++;
+                }
+                if (top + count > stack.length){
+                    stack = Arrays.copyOf(stack, Math.max(stack.length * 2, top + count));
+                    depth = Arrays.copyOf(depth, stack.length);
+                }
+                int i = top + count - 1;
+                for (int child=firstChild[node]; child!=NONE; child=nextSibling[child]){
+                    stack[i] = child;
+                    depth[i] = d + 1;
+                    i--;
+                }
+                top += count;
+            }
+        } catch (IOException e){
+            throw new UncheckedIOException(e);
+        }
+    }
+}
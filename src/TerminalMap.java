@@ -0,0 +1,80 @@
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * @Description 种别码到终结符编号的映射，预测分析程序和LALR1分析程序共用
+ * 种别码-1既表示输入结束，也表示非法字符，只有单词缓冲区的结束标志（见TokenBuffer.isEnd）才转换成界符
+ * @Author Jianlong
+ * @Date 2026-10-17 下午 23:59
+ */
+public class TerminalMap {
+
+    private final CompiledGrammar grammar;
+    // 下标为种别码，没有对应的终结符时为-1
+    private final int[] synToTerminal;
+
+    /**
+     * @param grammar 文法
+     * @param terminals 种别码到终结符的映射，终结符必须在文法中；输入结束不是单词，不需要放在映射中
+     */
+    public TerminalMap(CompiledGrammar grammar, Map<Integer, String> terminals){
+        this.grammar = grammar;
+        int max = 0;
+        for (int syn : terminals.keySet()){
+            if (syn < 0){
+                throw new IllegalArgumentException("种别码不能小于0: " + syn);
+            }
+            max = Math.max(max, syn);
+        }
+        this.synToTerminal = new int[max + 1];
+        Arrays.fill(synToTerminal, -1);
+        for (Map.Entry<Integer, String> entry : terminals.entrySet()){
+            int t = grammar.id(entry.getValue());
+            if (t < 0 || !grammar.isTerminal(t)){
+                throw new IllegalArgumentException("文法中没有这个终结符: " + entry.getValue());
+            }
+            synToTerminal[entry.getKey()] = t;
+        }
+    }
+
+    // 种别码对应的终结符编号，种别码-1（输入结束或非法字符）没有对应的终结符
+    public int terminal(int syn){
+        int t = syn >= 0 && syn < synToTerminal.length ? synToTerminal[syn] : -1;
+        if (t < 0){
+            throw new IllegalArgumentException("ERROR:无法识别的单词，种别码为 " + syn);
+        }
+        return t;
+    }
+
+    /**
+     * 把单词缓冲区转换成终结符编号序列，遇到非法字符时抛出异常
+     * @param input 存放结果的数组，不够长时换一个新数组
+     * @return 存放结果的数组，前tokens.size()个是终结符编号
+     */
+    int[] encode(TokenBuffer tokens, int[] input){
+        int n = tokens.size();
+        if (n > input.length){
+            input = new int[Math.max(n, input.length * 2)];
+        }
+        for (int i=0; i<n; i++){
+            int syn = tokens.syn(i);
+            if (syn != -1){
+                input[i] = terminal(syn);
+            } else if (tokens.isEnd(i)){
+                input[i] = grammar.getEnd();
+            } else{
+                // 词法分析遇到非法字符就停止了，不能把它当作输入结束，否则前面的部分会被当作完整的输入接受
+                throw new IllegalArgumentException("ERROR:第" + i + "个单词是非法字符 " + tokens.text(i));
+            }
+        }
+        return input;
+    }
+
+    // 流式分析中一个单词的终结符编号，输入结束由单词取完表示，种别码为-1的单词只能是非法字符
+    int terminal(LexicalAnalysis.Token token){
+        if (token.syn == -1){
+            throw new IllegalArgumentException("ERROR:非法字符 " + token.value);
+        }
+        return terminal(token.syn);
+    }
+}
@@ -0,0 +1,87 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * @Description 把分析过程输出为文字，先写入缓冲区，缓冲区满、分析成功、出错或分析器调用flush时才一次写出
+ * @Author Jianlong
+ * @Date 2026-10-17 下午 22:00
+ */
+public class TextParseTracer implements ParseTracer {
+
+    // 缓冲区超过这个长度时写出
+    private static final int FLUSH_SIZE = 8192;
+
+    private final CompiledGrammar grammar;
+    private final Appendable out;
+    private final StringBuilder buffer = new StringBuilder(FLUSH_SIZE + 256);
+
+    /**
+     * @param grammar 用于把符号编号转换为名字
+     * @param out 输出的位置，如System.out或者一个Writer
+     */
+    public TextParseTracer(CompiledGrammar grammar, Appendable out){
+        this.grammar = grammar;
+        this.out = out;
+    }
+
+    @Override
+    public void begin(int[] input) {
+        buffer.append("开始使用预测分析法进行语法分析:\n");
+        buffer.append("输入的符号串为: \n");
+        for (int i=0; i<input.length; i++){
+            buffer.append(i > 0 ? " " : "").append(grammar.name(input[i]));
+        }
+        buffer.append(" \n");
+    }
+
+    @Override
+    public void step(int step, int top, int lookahead) {
+        if (step == 0){
+            buffer.append("初始状态：放入左界符和开始符号...\n");
+        }
+        buffer.append("栈顶符号为").append(grammar.name(top))
+                .append(", 指针指向输入串的符号为").append(grammar.name(lookahead)).append('\n');
+        if (buffer.length() > FLUSH_SIZE){
+            flush();
+        }
+    }
+
+    @Override
+    public void production(int step, int nonterminal, int production) {
+        buffer.append("寻找对应产生式进行规约...\n");
+        buffer.append("找到了产生式 ").append(grammar.productionName(production)).append('\n');
+    }
+
+    @Override
+    public void match(int step, int terminal, int position) {
+        buffer.append("符号匹配，出栈，指针指向下一个符号\n");
+    }
+
+    @Override
+    public void accept(int step) {
+        buffer.append("分析成功!\n");
+        flush();
+    }
+
+    @Override
+    public void error(int step, int top, int lookahead, int position) {
+        if (grammar.isNonterminal(top)){
+            buffer.append("寻找对应产生式进行规约...\n");
+            buffer.append("未找到产生式...\n");
+        } else{
+            buffer.append("符号不匹配...\n");
+        }
+        flush();
+    }
+
+    // 把缓冲区中的内容写出
+    @Override
+    public void flush(){
+        try{
+            out.append(buffer);
+        } catch (IOException e){
+            throw new UncheckedIOException(e);
+        }
+        buffer.setLength(0);
+    }
+}
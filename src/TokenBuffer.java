@@ -0,0 +1,148 @@
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * @Description 单词缓冲区，用几个并列的int数组存储单词，不为每个单词创建对象
+ * @Author Jianlong
+ * @Date 2026-10-17 下午 13:20
+ */
+public class TokenBuffer {
+
+    // 种别码
+    private int[] syn;
+    // 单词在源程序中的起始位置
+    private int[] start;
+    // 单词的长度
+    private int[] length;
+    // 标识符在标识符表中的编号，其他单词为-1
+    private int[] symbol;
+    // 单词个数
+    private int size;
+    // 单词所在的源程序，需要单词的值时才从这里取
+    private char[] source;
+    // 直接按字节分析时（如内存映射的文件），单词所在的字节缓冲区
+    private ByteBuffer bytes;
+
+    public TokenBuffer(){
+        this(1024);
+    }
+
+    public TokenBuffer(int capacity){
+        capacity = Math.max(capacity, 16);
+        this.syn = new int[capacity];
+        this.start = new int[capacity];
+        this.length = new int[capacity];
+        this.symbol = new int[capacity];
+    }
+
+    // 加入一个单词，容量不够时翻倍扩容
+    void add(int syn, int start, int length){
+        add(syn, start, length, -1);
+    }
+
+    void add(int syn, int start, int length, int symbol){
+        if (size == this.syn.length){
+            grow();
+        }
+        this.syn[size] = syn;
+        this.start[size] = start;
+        this.length[size] = length;
+        this.symbol[size] = symbol;
+        size++;
+    }
+
+    // 把另一个缓冲区中[from, to)的单词整段追加进来
+    void append(TokenBuffer other, int from, int to){
+        int n = to - from;
+        if (size + n > syn.length){
+            grow(size + n);
+        }
+        System.arraycopy(other.syn, from, syn, size, n);
+        System.arraycopy(other.start, from, start, size, n);
+        System.arraycopy(other.length, from, length, size, n);
+        System.arraycopy(other.symbol, from, symbol, size, n);
+        size += n;
+    }
+
+    private void grow(){
+        grow(syn.length + 1);
+    }
+
+    // 扩容到至少minCapacity
+    private void grow(int minCapacity){
+        int capacity = Math.max(syn.length * 2, minCapacity);
+        syn = Arrays.copyOf(syn, capacity);
+        start = Arrays.copyOf(start, capacity);
+        length = Arrays.copyOf(length, capacity);
+        symbol = Arrays.copyOf(symbol, capacity);
+    }
+
+    // 清空缓冲区，数组留着下次复用
+    public void clear(){
+        size = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int syn(int i) {
+        return syn[i];
+    }
+
+    public int start(int i) {
+        return start[i];
+    }
+
+    public int length(int i) {
+        return length[i];
+    }
+
+    // 第i个单词是不是输入结束：最后一个单词，种别码为-1且长度为0
+    // 非法字符的种别码也是-1，但至少占一个字符
+    public boolean isEnd(int i) {
+        return i == size - 1 && syn[i] == -1 && length[i] == 0;
+    }
+
+    // 标识符的编号，不是标识符或没有使用标识符表时为-1
+    public int symbol(int i) {
+        return symbol[i];
+    }
+
+    void setSymbol(int i, int symbol) {
+        this.symbol[i] = symbol;
+    }
+
+    public char[] getSource() {
+        return source;
+    }
+
+    void setSource(char[] source) {
+        this.source = source;
+        this.bytes = null;
+    }
+
+    void setSource(ByteBuffer bytes) {
+        this.bytes = bytes;
+        this.source = null;
+    }
+
+    // 取出第i个单词的值，只有这里才会创建字符串（字节源程序在这里才解码）
+    public String text(int i){
+        if (bytes != null){
+            byte[] temp = new byte[length[i]];
+            bytes.get(start[i], temp);
+            return new String(temp, StandardCharsets.UTF_8);
+        }
+        return new String(source, start[i], length[i]);
+    }
+
+    // 转换成Token对象，主要用于和其他实现的结果做比较
+    public LexicalAnalysis.Token token(int i){
+        if (syn[i] == -1){
+            return new LexicalAnalysis.Token("noneType", -1);
+        }
+        return new LexicalAnalysis.Token(text(i), syn[i]);
+    }
+}
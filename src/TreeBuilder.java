@@ -0,0 +1,78 @@
+import java.util.Arrays;
+
+/**
+ * @Description 在预测分析的同时构造语法树
+ * 树的结点栈与分析栈一一对应：使用产生式时弹出非终结符的结点，为右部的每个符号建立孩子并倒序入栈；
+ * 终结符匹配时弹出它的结点并记下单词的下标。空产生式的非终结符结点没有孩子
+ * @Author Jianlong
+ * @Date 2026-10-17 下午 23:50
+ */
+public class TreeBuilder implements ParseTracer {
+
+    private final SyntaxTree tree;
+    // 还没有展开或匹配的结点，与分析栈中界符之上的部分对应
+    private int[] stack = new int[64];
+    private int top;
+
+    public TreeBuilder(CompiledGrammar grammar){
+        this(new SyntaxTree(grammar));
+    }
+
+    // 结点直接放入给定的树中，可以预先分配足够的容量
+    public TreeBuilder(SyntaxTree tree){
+        this.tree = tree;
+        stack[top++] = tree.add(tree.getGrammar().getStart());
+    }
+
+    public SyntaxTree getTree() {
+        return tree;
+    }
+
+    @Override
+    public void production(int step, int nonterminal, int production) {
+        int node = stack[--top];
+        int[] right = tree.getGrammar().rhs(production);
+        if (right.length == 0){
+            return;
+        }
+        if (top + right.length > stack.length){
+            stack = Arrays.copyOf(stack, Math.max(stack.length * 2, top + right.length));
+        }
+        // 孩子的下标是连续的，依次链接为兄弟
+        int first = tree.add(right[0]);
+        tree.setFirstChild(node, first);
+        int previous = first;
+        for (int i=1; i<right.length; i++){
+            int child = tree.add(right[i]);
+            tree.setNextSibling(previous, child);
+            previous = child;
+        }
+        for (int i=right.length-1; i>=0; i--){
+            stack[top++] = first + i;
+        }
+    }
+
+    @Override
+    public void match(int step, int terminal, int position) {
+        tree.setToken(stack[--top], position);
+    }
+
+    public static void main(String[] args) {
+        CompiledLL1Parser parser = new CompiledLL1Parser(ParserBenchmark.expressionGrammar(), ParserBenchmark.expressionTerminals());
+
+        TokenBuffer tokens = new TokenBuffer();
+        new DFAScanner().tokenize("a + b * (c - 1)".toCharArray(), tokens);
+        parser.parseTree(tokens).print(System.out, tokens);
+
+        // 一百万个单词左右的输入
+        char[] source = ParserBenchmark.generateExpression(2 * 1024 * 1024);
+        TokenBuffer big = new TokenBuffer();
+        new DFAScanner().tokenize(source, big);
+        for (int round=0; round<5; round++){
+            long start = System.nanoTime();
+            SyntaxTree tree = parser.parseTree(big);
+            System.out.printf("单词数: %d, 结点数: %d, 耗时: %.2f ms%n",
+                    big.size(), tree.size(), (System.nanoTime() - start) / 1e6);
+        }
+    }
+}